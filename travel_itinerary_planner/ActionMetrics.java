@@ -0,0 +1,361 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.ObjectName;
+
+/**
+ * Always-on instrumentation for user actions. Each action gets a lock-free log-linear
+ * latency histogram and a count of bytes allocated by the thread that ran it. An EDT
+ * watchdog records the dispatch thread's stack whenever one event blocks it for longer
+ * than a threshold. The report can be written to a file or read over JMX
+ * ({@link ActionMetricsMBean}), so slow installs can be diagnosed without a profiler.
+ *
+ * <p>A timed action costs two {@code nanoTime} calls, two allocation-counter reads, one
+ * small {@link Scope} and a few atomic increments; histograms never grow.
+ */
+public final class ActionMetrics implements ActionMetricsMBean {
+    public static final String OBJECT_NAME = "TravelItineraryPlanner:type=ActionMetrics";
+    /** Per-event EDT dispatch times, recorded by the watchdog. */
+    public static final String EDT_DISPATCH = "edt.dispatch";
+
+    private static final int MAX_STALLS = 50;
+    private static final int STACK_DEPTH = 40;
+
+    private static final ActionMetrics INSTANCE = new ActionMetrics(
+        Long.getLong("planner.edtStallMs", 200));
+
+    private final Map<String, Histogram> actions = new ConcurrentHashMap<>();
+    private final Deque<Stall> stalls = new ArrayDeque<>();
+    private final AtomicLong stallCount = new AtomicLong();
+    private volatile long stallThresholdNanos;
+    private final com.sun.management.ThreadMXBean threads = allocationCounter();
+    private boolean watchdogStarted;
+
+    ActionMetrics(long stallThresholdMillis) {
+        this.stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(stallThresholdMillis);
+    }
+
+    public static ActionMetrics get() {
+        return INSTANCE;
+    }
+
+    // Null when the JVM cannot count per-thread allocations
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Times the enclosing block; close it on the thread that opened it. */
+    public Scope time(String action) {
+        return new Scope(action, allocatedBytes());
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final String action;
+        private final long startBytes;
+        private final long start = System.nanoTime();
+
+        private Scope(String action, long startBytes) {
+            this.action = action;
+            this.startBytes = startBytes;
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - start;
+            record(action, nanos, allocatedBytes() - startBytes);
+        }
+    }
+
+    /** {@code bytes} may be negative when unknown. */
+    public void record(String action, long nanos, long bytes) {
+        actions.computeIfAbsent(action, k -> new Histogram()).record(nanos, bytes);
+    }
+
+    public Histogram histogram(String action) {
+        return actions.get(action);
+    }
+
+    /**
+     * Log-linear histogram of nanosecond values: eight linear sub-buckets per power of two,
+     * so any percentile is reported within 12.5% of the true value.
+     */
+    public static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong totalBytes = new AtomicLong();
+        private final AtomicLong measuredBytes = new AtomicLong();
+
+        static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        // Largest value that falls into bucket
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BITS);
+            return (1L << exponent) + (sub + 1) * width - 1;
+        }
+
+        void record(long nanos, long bytes) {
+            counts.incrementAndGet(bucket(nanos));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (bytes >= 0) {
+                totalBytes.addAndGet(bytes);
+                measuredBytes.incrementAndGet();
+            }
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public double meanNanos() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) totalNanos.get() / n;
+        }
+
+        /** Mean bytes allocated per recorded action, or -1 when allocation was not measured. */
+        public long bytesPerOp() {
+            long n = measuredBytes.get();
+            return n == 0 ? -1 : totalBytes.get() / n;
+        }
+
+        /** Upper bound of the bucket holding the {@code q} quantile, capped at the max. */
+        public long percentileNanos(double q) {
+            long n = count.get();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(upperBound(i), maxNanos.get());
+            }
+            return maxNanos.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            totalBytes.set(0);
+            measuredBytes.set(0);
+        }
+    }
+
+    /** One blocked-EDT episode: when it was detected, how long the event had run, and where. */
+    public record Stall(Instant detected, long blockedNanos, StackTraceElement[] stack) {}
+
+    public List<Stall> stalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    private void addStall(Stall stall) {
+        stallCount.incrementAndGet();
+        synchronized (stalls) {
+            if (stalls.size() == MAX_STALLS) stalls.removeFirst();
+            stalls.addLast(stall);
+        }
+    }
+
+    /**
+     * Pushes a timing {@link EventQueue} and starts the watchdog thread. Events whose
+     * dispatch ran a nested loop (modal dialogs) are left out of {@link #EDT_DISPATCH},
+     * since that time is spent waiting for the user.
+     */
+    public synchronized void startEdtWatchdog() {
+        if (watchdogStarted) return;
+        watchdogStarted = true;
+        TimingQueue queue = new TimingQueue();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(queue);
+        Thread watchdog = new Thread(queue::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    private final class TimingQueue extends EventQueue {
+        // Written by the EDT only; read by the watchdog
+        private volatile Thread edt;
+        private volatile int depth;
+        private volatile long lastProgress;
+        private boolean nested;
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            edt = Thread.currentThread();
+            long start = System.nanoTime();
+            if (depth > 0) nested = true;
+            depth++;
+            lastProgress = start;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long end = System.nanoTime();
+                lastProgress = end;
+                if (--depth == 0) {
+                    if (!nested) record(EDT_DISPATCH, end - start, -1);
+                    nested = false;
+                }
+            }
+        }
+
+        void watch() {
+            long reported = -1;
+            while (true) {
+                long threshold = stallThresholdNanos;
+                try {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(threshold / 4, TimeUnit.MILLISECONDS.toNanos(10)));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long progress = lastProgress;
+                long blocked = System.nanoTime() - progress;
+                Thread thread = edt;
+                if (depth == 0 || thread == null || blocked < threshold || progress == reported) continue;
+                StackTraceElement[] stack = thread.getStackTrace();
+                // A modal dialog's nested loop waiting for input is idle, not stalled
+                if (lastProgress != progress || waitingForEvents(stack)) continue;
+                reported = progress;
+                addStall(new Stall(Instant.now(), blocked,
+                    stack.length > STACK_DEPTH ? Arrays.copyOf(stack, STACK_DEPTH) : stack));
+            }
+        }
+    }
+
+    private static boolean waitingForEvents(StackTraceElement[] stack) {
+        for (int i = 0; i < stack.length && i < 12; i++) {
+            if (stack[i].getClassName().equals("java.awt.EventQueue") && stack[i].getMethodName().equals("getNextEvent")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Registers the MBean with the platform server; safe to call more than once. */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            var server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch (Exception e) {
+            System.err.println("metrics: JMX registration failed: " + e);
+        }
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder out = new StringBuilder();
+        out.append("Action metrics at ").append(Instant.now()).append('\n');
+        out.append(String.format(Locale.ROOT, "%-20s %8s %10s %10s %10s %10s %10s %12s%n",
+            "action", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms", "alloc/op"));
+        actions.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            Histogram h = entry.getValue();
+            long bytes = h.bytesPerOp();
+            out.append(String.format(Locale.ROOT, "%-20s %8d %10.2f %10.2f %10.2f %10.2f %10.2f %12s%n",
+                entry.getKey(), h.count(), h.meanNanos() / 1e6, h.percentileNanos(0.5) / 1e6,
+                h.percentileNanos(0.9) / 1e6, h.percentileNanos(0.99) / 1e6, h.maxNanos() / 1e6,
+                bytes < 0 ? "-" : formatBytes(bytes)));
+        });
+        out.append(String.format(Locale.ROOT, "%nEDT stalls over %d ms: %d%n",
+            getStallThresholdMillis(), stallCount.get()));
+        for (Stall stall : stalls()) {
+            out.append(String.format(Locale.ROOT, "%s blocked %.0f ms%n", stall.detected(), stall.blockedNanos() / 1e6));
+            for (StackTraceElement frame : stall.stack()) out.append("    at ").append(frame).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1 << 20) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    @Override
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    @Override
+    public long getStallThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stallThresholdNanos);
+    }
+
+    @Override
+    public void setStallThresholdMillis(long millis) {
+        if (millis <= 0) throw new IllegalArgumentException("threshold must be positive: " + millis);
+        stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Override
+    public void exportTo(String path) throws IOException {
+        exportTo(Path.of(path));
+    }
+
+    /** Writes the report through a temp file so a reader never sees half of it. */
+    public void exportTo(Path path) throws IOException {
+        Path target = ItineraryIO.saveTarget(path);
+        Path tmp = ItineraryIO.createPartFile(target);
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write(getReport());
+            }
+            ItineraryIO.replaceWith(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void reset() {
+        actions.values().forEach(Histogram::reset);
+        stallCount.set(0);
+        synchronized (stalls) {
+            stalls.clear();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.awt.EventQueue;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Overhead of the always-on action metrics: a timed scope (clock and allocation-counter
+ * reads plus a histogram update), a bare histogram update, and contended recording from
+ * every core. Also checks histogram percentiles against exact values and, headless, that
+ * the EDT watchdog catches a deliberately blocked event.
+ */
+public class ActionMetricsBenchmark {
+    public static void main(String[] args) throws Exception {
+        ActionMetrics metrics = new ActionMetrics(100);
+        Bench.header("Action metrics overhead");
+        Bench.nanosPerOp("time() scope, open + close", 100_000, 2_000_000, () -> {
+            ActionMetrics.Scope timing = metrics.time("scope");
+            try {
+                return 1;
+            } finally {
+                timing.close();
+            }
+        });
+        Bench.nanosPerOp("record() only", 100_000, 5_000_000, new LongSupplier() {
+            long v;
+            public long getAsLong() {
+                metrics.record("record", (v++ * 7919) & 0xFFFFF, 64);
+                return v;
+            }
+        });
+        int threads = Runtime.getRuntime().availableProcessors();
+        Bench.throughput("record() from " + threads + " threads", 2, 5, threads * 1_000_000, () -> {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < 1_000_000; i++) metrics.record("contended", i, -1);
+                });
+                workers[t].start();
+            }
+            for (Thread w : workers) {
+                try {
+                    w.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return threads;
+        });
+
+        // Percentiles from the histogram against the exact order statistic
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        ActionMetrics exact = new ActionMetrics(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(10 + random.nextGaussian() * 2); // log-normal, ~22 us median
+            exact.record("lognormal", values[i], -1);
+        }
+        Arrays.sort(values);
+        for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long truth = values[(int) Math.ceil(q * values.length) - 1];
+            long reported = exact.histogram("lognormal").percentileNanos(q);
+            System.out.printf("p%-5s exact %12d ns, histogram %12d ns (%+.1f%%)%n",
+                q * 100, truth, reported, 100.0 * (reported - truth) / truth);
+        }
+
+        // Watchdog: block the EDT past the threshold and expect one recorded stall
+        metrics.startEdtWatchdog();
+        EventQueue.invokeAndWait(() -> {
+            try {
+                Thread.sleep(400);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+        System.out.println("EDT stalls recorded: " + metrics.getStallCount()
+            + (metrics.getStallCount() > 0 ? ", top frame " + metrics.stalls().get(0).stack()[0] : ""));
+    }
+}
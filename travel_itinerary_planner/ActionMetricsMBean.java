@@ -0,0 +1,18 @@
+import java.io.IOException;
+
+/** JMX view of {@link ActionMetrics}, registered as {@code TravelItineraryPlanner:type=ActionMetrics}. */
+public interface ActionMetricsMBean {
+    /** The same text report {@link #exportTo} writes. */
+    String getReport();
+
+    long getStallCount();
+
+    long getStallThresholdMillis();
+
+    void setStallThresholdMillis(long millis);
+
+    /** Writes the report to {@code path} on the application's machine. */
+    void exportTo(String path) throws IOException;
+
+    void reset();
+}
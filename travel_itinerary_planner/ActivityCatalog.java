@@ -0,0 +1,329 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Activities per city and category, loaded once from a {@code city,category,name} CSV
+ * ({@code activities.csv} on the classpath by default). Names are pooled so each distinct
+ * activity is stored once, and every (city, category) pair has a primitive int postings
+ * list of activity ids. City {@code *} is the fallback for categories a city does not list;
+ * fallback categories left empty get a "Free Time" placeholder. {@link #find} uses a name to
+ * id map over everything a city can offer, built on the city's first lookup. When no
+ * {@code activities.csv} is found, the bundled catalog is empty and says so on stderr.
+ *
+ * <p>A row may end in {@code ,latitude,longitude}; the first coordinates given for a name
+ * become its location. {@link RouteOptimizer} only routes days whose stops all have one.
+ */
+public final class ActivityCatalog {
+    public static final List<String> CATEGORIES = List.of("Museums", "Parks", "Cafes", "Food", "Adventure",
+        "Relaxation", "Street Food", "Fine Dining", "Cultural Sites", "Shopping", "Evening");
+    public static final int EVENING = 10;
+    public static final String ANY_CITY = "*";
+
+    // Bit in ItineraryRequest.preferenceMask() that enables each category, in output order
+    static final int[] CATEGORY_BITS = {0, 1, 2, 5, 6, 7, 3, 4, 8, 9};
+
+    private static final String RESOURCE = "/activities.csv";
+    private static volatile ActivityCatalog bundled;
+
+    private final String[] names;
+    // Degrees per activity id, NaN when the CSV gives no location
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private final Map<String, Integer> cities;
+    // postings[city][category] -> activity ids in file order
+    private final int[][][] postings;
+    // city -> id of each activity its postings (with fallbacks) contain, by name; filled by find()
+    private final Map<Integer, Map<String, Integer>> offered = new ConcurrentHashMap<>();
+
+    private ActivityCatalog(String[] names, float[] latitudes, float[] longitudes,
+                            Map<String, Integer> cities, int[][][] postings) {
+        this.names = names;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cities = cities;
+        this.postings = postings;
+    }
+
+    /** The catalog bundled with the app, loaded on first use. */
+    public static ActivityCatalog bundled() {
+        ActivityCatalog catalog = bundled;
+        if (catalog == null) {
+            synchronized (ActivityCatalog.class) {
+                catalog = bundled;
+                if (catalog == null) {
+                    catalog = loadBundled();
+                    bundled = catalog;
+                    StartupTimer.mark("activity catalog");
+                }
+            }
+        }
+        return catalog;
+    }
+
+    private static ActivityCatalog loadBundled() {
+        try (InputStream in = ActivityCatalog.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+            Path local = Path.of("activities.csv");
+            if (Files.isRegularFile(local)) return load(local);
+            System.err.println("catalog: no activities.csv on the classpath or in " + local.toAbsolutePath().getParent()
+                + "; itineraries will only contain Free Time");
+            return read(new StringReader(""));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load activity catalog", e);
+        }
+    }
+
+    public static ActivityCatalog load(Path csv) throws IOException {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    public static ActivityCatalog read(Reader source) throws IOException {
+        Builder builder = new Builder();
+        BufferedReader reader = source instanceof BufferedReader b ? b : new BufferedReader(source);
+        Map<String, Integer> categoryIds = new HashMap<>();
+        for (int i = 0; i < CATEGORIES.size(); i++) categoryIds.put(CATEGORIES.get(i), i);
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            int first = line.indexOf(',');
+            int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+            if (second < 0) throw new IOException("Malformed activity line " + lineNo + ": " + line);
+            Integer category = categoryIds.get(line.substring(first + 1, second).trim());
+            if (category == null) throw new IOException("Unknown category on line " + lineNo + ": " + line);
+            String name = line.substring(second + 1).trim();
+            float lat = Float.NaN, lon = Float.NaN;
+            int lonComma = name.lastIndexOf(',');
+            int latComma = lonComma < 0 ? -1 : name.lastIndexOf(',', lonComma - 1);
+            if (latComma > 0) {
+                lat = coordinate(name.substring(latComma + 1, lonComma), 90);
+                lon = coordinate(name.substring(lonComma + 1), 180);
+                if (Float.isNaN(lat) || Float.isNaN(lon)) {
+                    lat = lon = Float.NaN; // commas belong to the name
+                } else {
+                    name = name.substring(0, latComma).trim();
+                }
+            }
+            builder.add(line.substring(0, first), category, name, lat, lon);
+        }
+        return builder.build();
+    }
+
+    // NaN unless the field is a plain decimal within [-limit, limit]
+    private static float coordinate(String field, int limit) {
+        String s = field.trim();
+        if (s.isEmpty()) return Float.NaN;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(c >= '0' && c <= '9' || c == '.' || c == '-' && i == 0)) return Float.NaN;
+        }
+        try {
+            float value = Float.parseFloat(s);
+            return Math.abs(value) <= limit ? value : Float.NaN;
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int cityCount() {
+        return cities.size();
+    }
+
+    public String name(int activityId) {
+        return names[activityId];
+    }
+
+    public boolean hasLocation(int activityId) {
+        return !Float.isNaN(latitudes[activityId]);
+    }
+
+    /** Degrees; NaN when the catalog has no location for the activity. */
+    public double latitude(int activityId) {
+        return latitudes[activityId];
+    }
+
+    public double longitude(int activityId) {
+        return longitudes[activityId];
+    }
+
+    /** Id of the activity called {@code name} that {@link #select} could offer in {@code city}, or -1. */
+    public int find(String city, String name) {
+        Integer c = cities.get(DistanceService.normalize(city));
+        Integer id = offered.computeIfAbsent(c == null ? 0 : c, this::offeredBy).get(name);
+        return id == null ? -1 : id;
+    }
+
+    private Map<String, Integer> offeredBy(int city) {
+        Map<String, Integer> byName = new HashMap<>();
+        for (int category = 0; category <= EVENING; category++) {
+            int[] list = postings[city][category].length > 0 ? postings[city][category] : postings[0][category];
+            for (int id : list) byName.putIfAbsent(names[id], id);
+        }
+        return byName;
+    }
+
+    /** Activity ids for a city and category, falling back to the {@code *} list. Do not modify. */
+    int[] postings(String city, int category) {
+        Integer id = cities.get(DistanceService.normalize(city));
+        int[] list = id == null ? null : postings[id][category];
+        return list != null && list.length > 0 ? list : postings[0][category];
+    }
+
+    /** Postings for every category enabled in {@code preferenceMask}, plus the evening slot. */
+    public Selection select(String city, int preferenceMask) {
+        int[][] slots = new int[Integer.bitCount(preferenceMask & 0x3FF)][];
+        int n = 0;
+        for (int category = 0; category < CATEGORY_BITS.length; category++) {
+            if ((preferenceMask & (1 << CATEGORY_BITS[category])) != 0) slots[n++] = postings(city, category);
+        }
+        return new Selection(slots, postings(city, EVENING));
+    }
+
+    /** A city's chosen categories; rotating through days allocates nothing. */
+    public final class Selection {
+        private final int[][] slots;
+        private final int[] evening;
+
+        private Selection(int[][] slots, int[] evening) {
+            this.slots = slots;
+            this.evening = evening;
+        }
+
+        public int slotCount() {
+            return slots.length;
+        }
+
+        /** Activity id for {@code slot} on 1-based {@code day}. */
+        public int activityId(int slot, int day) {
+            int[] list = slots[slot];
+            return list[(day - 1) % list.length];
+        }
+
+        public String activity(int slot, int day) {
+            return names[activityId(slot, day)];
+        }
+
+        public int eveningId(int day) {
+            return evening[(day - 1) % evening.length];
+        }
+
+        public String evening(int day) {
+            return names[eveningId(day)];
+        }
+
+        /** True when every activity and evening the selection can produce has coordinates. */
+        public boolean isLocated() {
+            for (int id : evening) {
+                if (!hasLocation(id)) return false;
+            }
+            for (int[] list : slots) {
+                for (int id : list) {
+                    if (!hasLocation(id)) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Builder {
+        private final Map<String, Integer> pool = new HashMap<>();
+        private String[] names = new String[256];
+        private float[] latitudes = new float[256];
+        private float[] longitudes = new float[256];
+        private final Map<String, Integer> cities = new HashMap<>();
+        private int[][][] lists = new int[16][][];
+        private int[][] sizes = new int[16][];
+
+        Builder() {
+            cityId(ANY_CITY); // id 0 is always the fallback city
+        }
+
+        private int cityId(String city) {
+            String key = DistanceService.normalize(city);
+            Integer id = cities.get(key);
+            if (id != null) return id;
+            int next = cities.size();
+            if (next == lists.length) {
+                lists = Arrays.copyOf(lists, next * 2);
+                sizes = Arrays.copyOf(sizes, next * 2);
+            }
+            lists[next] = new int[CATEGORIES.size()][];
+            sizes[next] = new int[CATEGORIES.size()];
+            cities.put(key, next);
+            return next;
+        }
+
+        private int nameId(String name) {
+            Integer id = pool.get(name);
+            if (id != null) return id;
+            int next = pool.size();
+            if (next == names.length) {
+                names = Arrays.copyOf(names, next * 2);
+                latitudes = Arrays.copyOf(latitudes, next * 2);
+                longitudes = Arrays.copyOf(longitudes, next * 2);
+            }
+            names[next] = name;
+            latitudes[next] = Float.NaN;
+            longitudes[next] = Float.NaN;
+            pool.put(name, next);
+            return next;
+        }
+
+        void add(String city, int category, String name, float lat, float lon) {
+            int c = cityId(city);
+            int id = nameId(name);
+            if (!Float.isNaN(lat) && Float.isNaN(latitudes[id])) {
+                latitudes[id] = lat;
+                longitudes[id] = lon;
+            }
+            int[] list = lists[c][category];
+            int size = sizes[c][category];
+            if (list == null) {
+                list = new int[4];
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = id;
+            lists[c][category] = list;
+            sizes[c][category] = size + 1;
+        }
+
+        ActivityCatalog build() {
+            // Every category needs at least one fallback entry so rotation never sees an empty list
+            for (int k = 0; k < CATEGORIES.size(); k++) {
+                if (sizes[0][k] == 0) add(ANY_CITY, k, k == EVENING ? "Free Evening" : "Free Time", Float.NaN, Float.NaN);
+            }
+            int cityCount = cities.size();
+            int[][][] postings = new int[cityCount][CATEGORIES.size()][];
+            for (int c = 0; c < cityCount; c++) {
+                for (int k = 0; k < CATEGORIES.size(); k++) {
+                    int[] list = lists[c][k];
+                    postings[c][k] = list == null ? new int[0] : Arrays.copyOf(list, sizes[c][k]);
+                }
+            }
+            int n = pool.size();
+            return new ActivityCatalog(Arrays.copyOf(names, n), Arrays.copyOf(latitudes, n),
+                Arrays.copyOf(longitudes, n), Map.copyOf(cities), postings);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/** Load, select and per-day rotation cost for a synthetic catalog of ~100k activities. */
+public class ActivityCatalogBenchmark {
+    public static void main(String[] args) {
+        int cities = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int perCategory = 9;
+        StringBuilder csv = new StringBuilder();
+        for (int c = 0; c < cities; c++) {
+            for (String category : ActivityCatalog.CATEGORIES) {
+                for (int i = 0; i < perCategory; i++) {
+                    // Every third name repeats across cities to exercise the name pool
+                    String name = i % 3 == 0 ? category + " Classic " + i : category + " Spot " + c + "-" + i;
+                    csv.append("City ").append(c).append(',').append(category).append(',').append(name).append('\n');
+                }
+            }
+        }
+        String data = csv.toString();
+        int rows = cities * ActivityCatalog.CATEGORIES.size() * perCategory;
+
+        Bench.header("Activity catalog, " + rows + " rows, " + cities + " cities");
+        Bench.nanosPerOp("load CSV", 2, 5, () -> read(data).size());
+        ActivityCatalog catalog = read(data);
+        System.out.println("distinct activities: " + catalog.size());
+
+        Bench.nanosPerOp("select(city, all categories)", 100_000, 1_000_000, new LongSupplier() {
+            int i;
+            public long getAsLong() {
+                return catalog.select("City " + (i++ % cities), 0x3FF).slotCount();
+            }
+        });
+        ActivityCatalog.Selection selection = catalog.select("City 42", 0x3FF);
+        Bench.nanosPerOp("rotate one day, 10 slots (ids only)", 1_000_000, 10_000_000, new LongSupplier() {
+            int day;
+            public long getAsLong() {
+                day++;
+                long sum = selection.eveningId(day);
+                for (int slot = 0; slot < 10; slot++) sum += selection.activityId(slot, day);
+                return sum;
+            }
+        });
+        ItineraryEngine engine = new ItineraryEngine(catalog, ForkJoinPool.commonPool());
+        Bench.nanosPerOp("generate 30-day itinerary", 10_000, 100_000, new LongSupplier() {
+            int i;
+            public long getAsLong() {
+                return engine.generate(new ItineraryRequest("City " + (i++ % cities), 30, 0b11111, 0b11111, "Car")).dayCount();
+            }
+        });
+    }
+
+    private static ActivityCatalog read(String csv) {
+        try {
+            return ActivityCatalog.read(new StringReader(csv));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
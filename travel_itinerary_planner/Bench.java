@@ -0,0 +1,38 @@
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal timing harness shared by the *Benchmark mains. There is no build
+ * tool in this project, so these run with plain {@code java} rather than JMH:
+ * warm up, time a fixed number of invocations, print per-op cost.
+ */
+final class Bench {
+    private static volatile long sink;
+
+    private Bench() {}
+
+    /** Runs {@code op} repeatedly and prints mean latency; {@code op} returns a value to defeat dead-code elimination. */
+    static double nanosPerOp(String name, int warmup, int iterations, LongSupplier op) {
+        for (int i = 0; i < warmup; i++) sink += op.getAsLong();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += op.getAsLong();
+        double nanos = (System.nanoTime() - start) / (double) iterations;
+        System.out.printf("%-48s %14.1f ns/op %14.1f ops/s%n", name, nanos, 1e9 / nanos);
+        return nanos;
+    }
+
+    /** Times {@code iterations} runs of a batch of {@code batchSize} items and prints items per second. */
+    static double throughput(String name, int warmup, int iterations, int batchSize, LongSupplier batch) {
+        for (int i = 0; i < warmup; i++) sink += batch.getAsLong();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += batch.getAsLong();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double perSecond = (double) batchSize * iterations / seconds;
+        System.out.printf("%-48s %14.1f items/s%n", name, perSecond);
+        return perSecond;
+    }
+
+    static void header(String title) {
+        System.out.println();
+        System.out.println("== " + title + " (" + Runtime.getRuntime().availableProcessors() + " cpus) ==");
+    }
+}
@@ -0,0 +1,41 @@
+/** Scenarios per second for BudgetSweep against one BudgetRules.estimate call per scenario. */
+public class BudgetBenchmark {
+    public static void main(String[] args) {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        DistanceService cities = DistanceBenchmark.synthetic(pairs, 7);
+        String[] sources = new String[pairs];
+        String[] destinations = new String[pairs];
+        double[] km = new double[pairs];
+        for (int i = 0; i < pairs; i++) {
+            sources[i] = cities.name(i);
+            destinations[i] = cities.name((i * 13 + 1) % pairs);
+            km[i] = cities.distanceKm(i, (i * 13 + 1) % pairs);
+        }
+        int scenarios = pairs * ItineraryRequest.TRANSPORT_MODES.size() * 4 * BudgetSweep.MAX_DAYS;
+
+        Bench.header("Budget sweep, " + pairs + " pairs, " + scenarios + " scenarios");
+        Bench.throughput("one estimate() per scenario", 2, 5, scenarios, () -> {
+            double sum = 0;
+            for (int p = 0; p < pairs; p++) {
+                for (String mode : ItineraryRequest.TRANSPORT_MODES) {
+                    for (int f = 0; f < 2; f++) {
+                        for (int t = 0; t < 2; t++) {
+                            for (int d = 1; d <= BudgetSweep.MAX_DAYS; d++) {
+                                sum += BudgetRules.estimateForTiers(km[p], mode, d, f, t).total();
+                            }
+                        }
+                    }
+                }
+            }
+            return (long) sum;
+        });
+        Bench.throughput("BudgetSweep.run", 2, 5, scenarios,
+            () -> BudgetSweep.run(sources, destinations, km, BudgetSweep.MAX_DAYS).size());
+        BudgetSweep.Result result = BudgetSweep.run(sources, destinations, km, BudgetSweep.MAX_DAYS);
+        Bench.throughput("cheapestPerDuration over all pairs", 2, 5, pairs * BudgetSweep.MAX_DAYS, () -> {
+            long n = 0;
+            for (int p = 0; p < pairs; p++) n += result.cheapestPerDuration(p).size();
+            return n;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Cost rules behind "Estimate Budget": per-km transport rates per mode and flat per-day
+ * food/ticket tiers picked from the selected attractions and interests.
+ */
+public final class BudgetRules {
+    public static final int STANDARD = 0;
+    public static final int PREMIUM = 1;
+    public static final String[] TIER_NAMES = {"Standard", "Premium"};
+    static final double[] FOOD_PER_DAY = {800, 1500};
+    static final double[] TICKETS_PER_DAY = {500, 1000};
+    private static final double DEFAULT_RATE_PER_KM = 1;
+
+    private BudgetRules() {}
+
+    /** One-way INR per km for a transport mode. */
+    public static double ratePerKm(String transportMode) {
+        return switch (transportMode) {
+            case "Flight" -> 5;
+            case "Car" -> 2;
+            case "Public Transport" -> 0.5;
+            case "Walking" -> 0;
+            case "Bicycle" -> 0.1;
+            default -> DEFAULT_RATE_PER_KM;
+        };
+    }
+
+    // Food interest, Street Food or Fine Dining
+    public static int foodTier(int attractionMask, int interestMask) {
+        return (interestMask & 0b1) != 0 || (attractionMask & 0b11000) != 0 ? PREMIUM : STANDARD;
+    }
+
+    // Museums, Adventure or Cultural Sites
+    public static int ticketTier(int attractionMask, int interestMask) {
+        return (attractionMask & 0b1) != 0 || (interestMask & 0b1010) != 0 ? PREMIUM : STANDARD;
+    }
+
+    public static double roundTripTransport(double distanceKm, String transportMode) {
+        return distanceKm * ratePerKm(transportMode) * 2;
+    }
+
+    public static Estimate estimate(double distanceKm, String transportMode, int days, int attractionMask, int interestMask) {
+        return estimateForTiers(distanceKm, transportMode, days,
+            foodTier(attractionMask, interestMask), ticketTier(attractionMask, interestMask));
+    }
+
+    public static Estimate estimateForTiers(double distanceKm, String transportMode, int days, int foodTier, int ticketTier) {
+        return new Estimate(distanceKm, roundTripTransport(distanceKm, transportMode),
+            FOOD_PER_DAY[foodTier] * days, TICKETS_PER_DAY[ticketTier] * days);
+    }
+
+    /** Totals in INR; transport is the round trip. */
+    public record Estimate(double distanceKm, double transport, double food, double tickets) {
+        public double total() {
+            return transport + food + tickets;
+        }
+    }
+}
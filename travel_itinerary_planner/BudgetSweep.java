@@ -0,0 +1,155 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * What-if budgets over every transport mode x duration x food/ticket tier for many
+ * source/destination pairs at once. Totals are computed with {@link BudgetRules} into one
+ * flat primitive array, one pair per parallel task, with tight per-day inner loops.
+ */
+public final class BudgetSweep {
+    public static final int MAX_DAYS = 30;
+    private static final List<String> MODES = ItineraryRequest.TRANSPORT_MODES;
+    private static final int TIERS = BudgetRules.TIER_NAMES.length;
+
+    private final DistanceService distances;
+
+    public BudgetSweep() {
+        this(DistanceService.bundled());
+    }
+
+    public BudgetSweep(DistanceService distances) {
+        this.distances = distances;
+    }
+
+    public Result run(String[] sources, String[] destinations, int maxDays) {
+        if (sources.length != destinations.length) {
+            throw new IllegalArgumentException("sources and destinations differ in length");
+        }
+        double[] km = new double[sources.length];
+        for (int i = 0; i < km.length; i++) {
+            km[i] = distances.distanceKm(sources[i], destinations[i]);
+        }
+        return run(sources, destinations, km, maxDays);
+    }
+
+    public static Result run(String[] sources, String[] destinations, double[] distancesKm, int maxDays) {
+        if (maxDays < 1) {
+            throw new IllegalArgumentException("maxDays must be positive: " + maxDays);
+        }
+        int pairs = distancesKm.length;
+        int modes = MODES.size();
+        double[] rates = new double[modes];
+        for (int m = 0; m < modes; m++) rates[m] = BudgetRules.ratePerKm(MODES.get(m));
+
+        // Per-day cost for each food/ticket tier combination, shared by all pairs
+        double[] dailyCost = new double[TIERS * TIERS];
+        for (int f = 0; f < TIERS; f++) {
+            for (int t = 0; t < TIERS; t++) {
+                dailyCost[f * TIERS + t] = BudgetRules.FOOD_PER_DAY[f] + BudgetRules.TICKETS_PER_DAY[t];
+            }
+        }
+
+        // Layout: [pair][mode][tierCombo][day-1]
+        int perTier = maxDays;
+        int perMode = TIERS * TIERS * perTier;
+        int perPair = modes * perMode;
+        double[] totals = new double[Math.multiplyExact(pairs, perPair)];
+        IntStream.range(0, pairs).parallel().forEach(p -> {
+            int base = p * perPair;
+            for (int m = 0; m < modes; m++) {
+                double transport = distancesKm[p] * rates[m] * 2;
+                for (int c = 0; c < dailyCost.length; c++) {
+                    double daily = dailyCost[c];
+                    int off = base + m * perMode + c * perTier;
+                    for (int d = 0; d < perTier; d++) {
+                        totals[off + d] = transport + daily * (d + 1);
+                    }
+                }
+            }
+        });
+        return new Result(sources, destinations, distancesKm, maxDays, totals);
+    }
+
+    /** One scenario of a sweep. */
+    public record Row(String source, String destination, double distanceKm, String transportMode, int days,
+                      String foodTier, String ticketTier, double total) {}
+
+    /** Flat result table; rows are materialized lazily from the primitive totals. */
+    public static final class Result {
+        private final String[] sources;
+        private final String[] destinations;
+        private final double[] distancesKm;
+        private final int maxDays;
+        private final double[] totals;
+
+        private Result(String[] sources, String[] destinations, double[] distancesKm, int maxDays, double[] totals) {
+            this.sources = sources;
+            this.destinations = destinations;
+            this.distancesKm = distancesKm;
+            this.maxDays = maxDays;
+            this.totals = totals;
+        }
+
+        public int size() {
+            return totals.length;
+        }
+
+        public int maxDays() {
+            return maxDays;
+        }
+
+        public double total(int index) {
+            return totals[index];
+        }
+
+        public Row row(int index) {
+            int day = index % maxDays;
+            int rest = index / maxDays;
+            int combo = rest % (TIERS * TIERS);
+            rest /= TIERS * TIERS;
+            int mode = rest % MODES.size();
+            int pair = rest / MODES.size();
+            return new Row(sources[pair], destinations[pair], distancesKm[pair], MODES.get(mode), day + 1,
+                BudgetRules.TIER_NAMES[combo / TIERS], BudgetRules.TIER_NAMES[combo % TIERS], totals[index]);
+        }
+
+        /** All scenarios as a read-only list view. */
+        public List<Row> rows() {
+            return new AbstractList<>() {
+                @Override
+                public Row get(int index) {
+                    return row(index);
+                }
+
+                @Override
+                public int size() {
+                    return totals.length;
+                }
+            };
+        }
+
+        public List<Row> sorted(Comparator<Row> order) {
+            List<Row> rows = new ArrayList<>(rows());
+            rows.sort(order);
+            return rows;
+        }
+
+        /** For one pair, the cheapest scenario at each duration 1..maxDays. */
+        public List<Row> cheapestPerDuration(int pair) {
+            int perPair = totals.length / sources.length;
+            int base = pair * perPair;
+            List<Row> cheapest = new ArrayList<>(maxDays);
+            for (int d = 0; d < maxDays; d++) {
+                int best = base + d;
+                for (int i = base + d; i < base + perPair; i += maxDays) {
+                    if (totals[i] < totals[best]) best = i;
+                }
+                cheapest.add(row(best));
+            }
+            return cheapest;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+import java.util.List;
+
+/**
+ * One day of an {@link Itinerary}: the daytime activities in order plus the evening slot.
+ * {@code travelKm} is the routed distance between the day's stops, NaN when the day was not routed.
+ */
+public record DayPlan(int number, List<String> activities, String evening, double travelKm) {
+    public DayPlan {
+        activities = List.copyOf(activities);
+    }
+
+    public DayPlan(int number, List<String> activities, String evening) {
+        this(number, activities, evening, Double.NaN);
+    }
+
+    public boolean hasTravel() {
+        return !Double.isNaN(travelKm);
+    }
+}
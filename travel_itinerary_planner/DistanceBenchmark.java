@@ -0,0 +1,55 @@
+import java.util.Random;
+
+/** Single lookups on the bundled table and full-matrix builds over synthetic city sets. */
+public class DistanceBenchmark {
+    public static void main(String[] args) {
+        DistanceService bundled = DistanceService.bundled();
+        String[] names = {"Delhi", "Mumbai", "Goa", "Bengaluru", "Paris", "Tokyo", "Unknown Town"};
+
+        Bench.header("Distance lookups");
+        Bench.nanosPerOp("distanceKm(name, name), memoized", 200_000, 2_000_000, new java.util.function.LongSupplier() {
+            int i;
+            public long getAsLong() {
+                return (long) bundled.distanceKm(names[i++ % 6], names[(i * 7) % 6]);
+            }
+        });
+        Bench.nanosPerOp("distanceKm(name, unknown)", 200_000, 2_000_000,
+            () -> (long) bundled.distanceKm("Delhi", names[6]));
+        Bench.nanosPerOp("haversine(id, id), uncached", 200_000, 2_000_000, new java.util.function.LongSupplier() {
+            int i;
+            public long getAsLong() {
+                i++;
+                return (long) bundled.haversine(i % bundled.size(), (i * 31) % bundled.size());
+            }
+        });
+
+        Bench.header("Distance matrix");
+        for (int n : new int[] {500, 2000, 4000}) {
+            DistanceService synthetic = synthetic(n, 42);
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) ids[i] = i;
+            Bench.throughput("sequential haversine matrix, n=" + n, 1, 3, n * n, () -> {
+                float[] m = new float[n * n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) m[i * n + j] = (float) synthetic.haversine(i, j);
+                }
+                return m.length;
+            });
+            Bench.throughput("distanceMatrix (parallel, symmetric), n=" + n, 1, 3, n * n,
+                () -> synthetic.distanceMatrix(ids).length);
+        }
+    }
+
+    static DistanceService synthetic(int n, long seed) {
+        Random random = new Random(seed);
+        String[] names = new String[n];
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = "City " + i;
+            lat[i] = random.nextDouble() * 140 - 70;
+            lon[i] = random.nextDouble() * 360 - 180;
+        }
+        return new DistanceService(names, lat, lon, 4096);
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic city-to-city distances. Coordinates live in primitive arrays indexed by
+ * city id; distances are great-circle (haversine) kilometres, memoized per normalized
+ * city pair in a bounded LRU. Unknown cities fall back to a stable pseudo-distance so the
+ * same query always yields the same budget.
+ */
+public final class DistanceService {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final String[] BUNDLED_NAMES = {
+        "Delhi", "Mumbai", "Goa", "Bengaluru", "Chennai", "Kolkata", "Hyderabad", "Pune",
+        "Ahmedabad", "Jaipur", "Udaipur", "Jodhpur", "Agra", "Varanasi", "Lucknow", "Amritsar",
+        "Chandigarh", "Shimla", "Manali", "Rishikesh", "Dehradun", "Srinagar", "Leh", "Kochi",
+        "Thiruvananthapuram", "Mysuru", "Ooty", "Puducherry", "Madurai", "Bhopal", "Indore", "Nagpur",
+        "Bhubaneswar", "Patna", "Guwahati", "Darjeeling", "Gangtok", "Port Blair", "Visakhapatnam", "Surat",
+        "Kathmandu", "Colombo", "Dhaka", "Dubai", "Singapore", "Bangkok", "Kuala Lumpur", "Bali",
+        "Hong Kong", "Tokyo", "Seoul", "Beijing", "Sydney", "London", "Paris", "Rome",
+        "Barcelona", "Amsterdam", "Berlin", "Zurich", "Istanbul", "Cairo", "Nairobi", "Cape Town",
+        "New York", "San Francisco", "Los Angeles", "Toronto", "Mexico City", "Rio de Janeiro"
+    };
+    // Latitude/longitude pairs in degrees, same order as BUNDLED_NAMES
+    private static final double[] BUNDLED_COORDS = {
+        28.6139, 77.2090, 19.0760, 72.8777, 15.4909, 73.8278, 12.9716, 77.5946,
+        13.0827, 80.2707, 22.5726, 88.3639, 17.3850, 78.4867, 18.5204, 73.8567,
+        23.0225, 72.5714, 26.9124, 75.7873, 24.5854, 73.7125, 26.2389, 73.0243,
+        27.1767, 78.0081, 25.3176, 82.9739, 26.8467, 80.9462, 31.6340, 74.8723,
+        30.7333, 76.7794, 31.1048, 77.1734, 32.2432, 77.1892, 30.0869, 78.2676,
+        30.3165, 78.0322, 34.0837, 74.7973, 34.1526, 77.5771, 9.9312, 76.2673,
+        8.5241, 76.9366, 12.2958, 76.6394, 11.4102, 76.6950, 11.9416, 79.8083,
+        9.9252, 78.1198, 23.2599, 77.4126, 22.7196, 75.8577, 21.1458, 79.0882,
+        20.2961, 85.8245, 25.5941, 85.1376, 26.1445, 91.7362, 27.0360, 88.2627,
+        27.3389, 88.6065, 11.6234, 92.7265, 17.6868, 83.2185, 21.1702, 72.8311,
+        27.7172, 85.3240, 6.9271, 79.8612, 23.8103, 90.4125, 25.2048, 55.2708,
+        1.3521, 103.8198, 13.7563, 100.5018, 3.1390, 101.6869, -8.6500, 115.2167,
+        22.3193, 114.1694, 35.6762, 139.6503, 37.5665, 126.9780, 39.9042, 116.4074,
+        -33.8688, 151.2093, 51.5074, -0.1278, 48.8566, 2.3522, 41.9028, 12.4964,
+        41.3874, 2.1686, 52.3676, 4.9041, 52.5200, 13.4050, 47.3769, 8.5417,
+        41.0082, 28.9784, 30.0444, 31.2357, -1.2921, 36.8219, -33.9249, 18.4241,
+        40.7128, -74.0060, 37.7749, -122.4194, 34.0522, -118.2437, 43.6532, -79.3832,
+        19.4326, -99.1332, -22.9068, -43.1729
+    };
+    private static final String[][] ALIASES = {
+        {"new delhi", "delhi"}, {"bombay", "mumbai"}, {"panaji", "goa"}, {"bangalore", "bengaluru"},
+        {"madras", "chennai"}, {"calcutta", "kolkata"}, {"trivandrum", "thiruvananthapuram"},
+        {"mysore", "mysuru"}, {"pondicherry", "puducherry"}, {"cochin", "kochi"}, {"denpasar", "bali"},
+        {"new york city", "new york"}, {"nyc", "new york"}, {"sf", "san francisco"}
+    };
+
+    private static final DistanceService BUNDLED = fromCoords(BUNDLED_NAMES, BUNDLED_COORDS);
+
+    private final String[] names;
+    private final double[] latRad;
+    private final double[] lonRad;
+    private final double[] cosLat;
+    private final Map<String, Integer> ids;
+    private final Map<Long, Double> memo;
+
+    public DistanceService(String[] names, double[] latDeg, double[] lonDeg, int cacheSize) {
+        if (names.length != latDeg.length || names.length != lonDeg.length) {
+            throw new IllegalArgumentException("names and coordinates differ in length");
+        }
+        int n = names.length;
+        this.names = names.clone();
+        this.latRad = new double[n];
+        this.lonRad = new double[n];
+        this.cosLat = new double[n];
+        this.ids = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            latRad[i] = Math.toRadians(latDeg[i]);
+            lonRad[i] = Math.toRadians(lonDeg[i]);
+            cosLat[i] = Math.cos(latRad[i]);
+            ids.put(normalize(names[i]), i);
+        }
+        this.memo = new LinkedHashMap<>(Math.min(cacheSize, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    private static DistanceService fromCoords(String[] names, double[] coords) {
+        double[] lat = new double[names.length];
+        double[] lon = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            lat[i] = coords[2 * i];
+            lon[i] = coords[2 * i + 1];
+        }
+        DistanceService service = new DistanceService(names, lat, lon, DEFAULT_CACHE_SIZE);
+        for (String[] alias : ALIASES) {
+            Integer id = service.ids.get(alias[1]);
+            if (id != null) service.ids.put(alias[0], id);
+        }
+        return service;
+    }
+
+    /** Shared instance over the bundled city table. */
+    public static DistanceService bundled() {
+        return BUNDLED;
+    }
+
+    // trim, collapse inner whitespace, lower-case; hand-rolled since this sits on every lookup
+    static String normalize(String city) {
+        StringBuilder sb = new StringBuilder(city.length());
+        boolean space = false;
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                sb.append(c);
+                space = false;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /** City id for a (case- and whitespace-insensitive) name or alias, or -1 if unknown. */
+    public int idOf(String city) {
+        Integer id = ids.get(normalize(city));
+        return id == null ? -1 : id;
+    }
+
+    public double latitude(int id) {
+        return Math.toDegrees(latRad[id]);
+    }
+
+    public double longitude(int id) {
+        return Math.toDegrees(lonRad[id]);
+    }
+
+    public boolean knows(String city) {
+        return idOf(city) >= 0;
+    }
+
+    /** Great-circle km for known cities, otherwise a deterministic estimate in [100, 1100). */
+    public double distanceKm(String source, String destination) {
+        int a = idOf(source);
+        int b = idOf(destination);
+        if (a < 0 || b < 0) {
+            return fallbackKm(normalize(source), normalize(destination));
+        }
+        return distanceKm(a, b);
+    }
+
+    public double distanceKm(int a, int b) {
+        if (a == b) return 0;
+        long key = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        synchronized (memo) {
+            Double cached = memo.get(key);
+            if (cached != null) return cached;
+        }
+        double km = haversine(a, b);
+        synchronized (memo) {
+            memo.put(key, km);
+        }
+        return km;
+    }
+
+    double haversine(int a, int b) {
+        double sinLat = Math.sin((latRad[b] - latRad[a]) * 0.5);
+        double sinLon = Math.sin((lonRad[b] - lonRad[a]) * 0.5);
+        double h = sinLat * sinLat + cosLat[a] * cosLat[b] * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private static double fallbackKm(String a, String b) {
+        if (a.equals(b)) return 0;
+        // Order-independent so A->B and B->A agree
+        int h = a.hashCode() ^ b.hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return Math.floorMod(h, 1000) + 100;
+    }
+
+    /**
+     * Row-major N x N great-circle matrix for {@code cityIds}, filled in parallel.
+     * Bypasses the memo cache, which would only thrash at matrix scale.
+     */
+    public float[] distanceMatrix(int[] cityIds) {
+        int n = cityIds.length;
+        float[] matrix = new float[Math.multiplyExact(n, n)];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int a = cityIds[i];
+            int row = i * n;
+            for (int j = i + 1; j < n; j++) {
+                float km = (float) haversine(a, cityIds[j]);
+                matrix[row + j] = km;
+                matrix[j * n + i] = km;
+            }
+        });
+        return matrix;
+    }
+
+    /** Matrix over every city in the table. */
+    public float[] distanceMatrix() {
+        return distanceMatrix(IntStream.range(0, names.length).toArray());
+    }
+}
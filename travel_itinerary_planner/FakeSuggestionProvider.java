@@ -0,0 +1,42 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for a slow remote model: answers from the local {@link TipEngine} after
+ * {@code latencyMillis} plus up to {@code jitterMillis} of random delay, and counts calls so
+ * benchmarks can see how many requests the cache and coalescing saved. Selected in the app with
+ * {@code -Dplanner.suggestions.fakeLatencyMs=<ms>}.
+ */
+public final class FakeSuggestionProvider implements SuggestionProvider {
+    private final TipSuggestionProvider tips;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final AtomicLong calls = new AtomicLong();
+
+    public FakeSuggestionProvider(TipEngine engine, long latencyMillis, long jitterMillis) {
+        this.tips = new TipSuggestionProvider(engine);
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> suggest(Query query) {
+        calls.incrementAndGet();
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        // delayedExecutor only schedules; nothing blocks a pool thread while "waiting on the network"
+        return CompletableFuture.supplyAsync(() -> query, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+            .thenCompose(tips::suggest);
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    @Override
+    public String name() {
+        return "fake (" + latencyMillis + " ms)";
+    }
+}
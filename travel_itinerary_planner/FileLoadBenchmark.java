@@ -0,0 +1,57 @@
+import javax.swing.*;
+import javax.swing.text.PlainDocument;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Load time and EDT stall for a multi-megabyte itinerary: the old per-line
+ * JTextArea.append() loop (all of it on the EDT) against ItineraryIO.readDocument()
+ * off the EDT plus a single setDocument() swap on it.
+ */
+public class FileLoadBenchmark {
+    public static void main(String[] args) throws Exception {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        Path file = Files.createTempFile("itinerary", ".txt");
+        try {
+            Itinerary itinerary = new ItineraryEngine().stream(new ItineraryRequest("Goa", days, 0b11111, 0b11111, "Car"));
+            ItineraryIO.writeItinerary(itinerary, file, p -> {}, () -> false);
+            Bench.header(String.format("Itinerary load, %.1f MB", Files.size(file) / 1e6));
+
+            for (int round = 0; round < 3; round++) {
+                long[] legacy = new long[1];
+                SwingUtilities.invokeAndWait(() -> {
+                    JTextArea area = new JTextArea();
+                    new JScrollPane(area);
+                    long start = System.nanoTime();
+                    try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+                        area.setText("");
+                        String line;
+                        while ((line = reader.readLine()) != null) area.append(line + "\n");
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    legacy[0] = System.nanoTime() - start;
+                });
+
+                long start = System.nanoTime();
+                PlainDocument doc = ItineraryIO.readDocument(file, p -> {}, () -> false);
+                long background = System.nanoTime() - start;
+                long[] swap = new long[1];
+                SwingUtilities.invokeAndWait(() -> {
+                    JTextArea area = new JTextArea();
+                    new JScrollPane(area);
+                    long t = System.nanoTime();
+                    area.setDocument(doc);
+                    swap[0] = System.nanoTime() - t;
+                });
+
+                System.out.printf("round %d: legacy total/EDT stall %8.1f ms | async read %8.1f ms, EDT stall %6.2f ms%n",
+                    round, legacy[0] / 1e6, background / 1e6, swap[0] / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suggestions from a remote endpoint such as a hosted language model or a local stub server.
+ * The query is POSTed as JSON:
+ * <pre>{"destination":"paris","days":3,"attractions":["Museums"],"interests":["Food"],"transportMode":"Car","count":3}</pre>
+ * and the reply is either {@code {"suggestions":["...", ...]}} or a bare JSON array of strings.
+ * An API key, if any, is sent as a bearer token.
+ */
+public final class HttpSuggestionProvider implements SuggestionProvider {
+    private final HttpClient client;
+    private final URI endpoint;
+    private final String apiKey;
+    private final Duration requestTimeout;
+
+    public HttpSuggestionProvider(URI endpoint, String apiKey, Duration requestTimeout) {
+        this.endpoint = endpoint;
+        this.apiKey = apiKey == null || apiKey.isBlank() ? null : apiKey;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+    }
+
+    @Override
+    public CompletableFuture<List<String>> suggest(Query query) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body(query)));
+        if (apiKey != null) request.header("Authorization", "Bearer " + apiKey);
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+            .thenApply(response -> {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IllegalStateException(endpoint.getHost() + " answered HTTP " + response.statusCode());
+                }
+                List<String> suggestions = Json.readStringArray(response.body(), "suggestions");
+                return suggestions.size() > query.count() ? List.copyOf(suggestions.subList(0, query.count())) : suggestions;
+            });
+    }
+
+    static String body(Query query) {
+        return "{\"destination\":" + Json.quote(query.destination())
+            + ",\"days\":" + query.days()
+            + ",\"attractions\":" + Json.stringArray(labels(query.attractionMask(), ItineraryRequest.ATTRACTIONS))
+            + ",\"interests\":" + Json.stringArray(labels(query.interestMask(), ItineraryRequest.INTERESTS))
+            + ",\"transportMode\":" + (query.transportMode() == null ? "null" : Json.quote(query.transportMode()))
+            + ",\"count\":" + query.count() + "}";
+    }
+
+    private static List<String> labels(int mask, List<String> all) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            if ((mask & (1 << i)) != 0) out.add(all.get(i));
+        }
+        return out;
+    }
+
+    @Override
+    public String name() {
+        return endpoint.getHost();
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Structured result of {@link ItineraryEngine#generate}; {@link #toText()} renders the classic text layout.
+ * Days are either held in a list or produced on demand by a generator, so very long
+ * itineraries can be streamed and rendered without materializing every day.
+ */
+public final class Itinerary {
+    static final int HEADER_LINES = 4;
+    static final String TRAVEL_PREFIX = "  Travel: ";
+
+    private final String destination;
+    private final String transportMode;
+    private final int dayCount;
+    private final IntFunction<DayPlan> days;
+    private final int activitiesPerDay;
+
+    public Itinerary(String destination, String transportMode, List<DayPlan> days) {
+        this.destination = destination;
+        this.transportMode = transportMode;
+        List<DayPlan> copy = List.copyOf(days);
+        this.dayCount = copy.size();
+        this.days = number -> copy.get(number - 1);
+        this.activitiesPerDay = -1;
+    }
+
+    /** Lazy itinerary: {@code generator} is called with 1-based day numbers and must be pure. */
+    public Itinerary(String destination, String transportMode, int dayCount, int activitiesPerDay,
+                     IntFunction<DayPlan> generator) {
+        this.destination = destination;
+        this.transportMode = transportMode;
+        this.dayCount = dayCount;
+        this.days = generator;
+        this.activitiesPerDay = activitiesPerDay;
+    }
+
+    public String destination() {
+        return destination;
+    }
+
+    public String transportMode() {
+        return transportMode;
+    }
+
+    public int dayCount() {
+        return dayCount;
+    }
+
+    /** Day numbers are 1-based, matching the text output. */
+    public DayPlan day(int number) {
+        if (number < 1 || number > dayCount) {
+            throw new IndexOutOfBoundsException("day " + number + " of " + dayCount);
+        }
+        return days.apply(number);
+    }
+
+    /** Read-only view; lazy itineraries compute each element on access. */
+    public List<DayPlan> days() {
+        return new AbstractList<>() {
+            @Override
+            public DayPlan get(int index) {
+                return day(index + 1);
+            }
+
+            @Override
+            public int size() {
+                return dayCount;
+            }
+        };
+    }
+
+    public Stream<DayPlan> dayStream() {
+        return IntStream.rangeClosed(1, dayCount).mapToObj(this::day);
+    }
+
+    /**
+     * Activities per day when every day has the same count and the same routing (lazy engine
+     * output), otherwise -1.
+     */
+    public int activitiesPerDay() {
+        return activitiesPerDay;
+    }
+
+    /** Number of text lines {@link #writeTo} emits for {@code day}. */
+    static int linesFor(DayPlan day) {
+        return day.activities().size() + (day.hasTravel() ? 4 : 3);
+    }
+
+    static String travelLine(DayPlan day) {
+        return TRAVEL_PREFIX + String.format(Locale.ROOT, "%.1f km", day.travelKm());
+    }
+
+    void writeHeader(Appendable out) throws IOException {
+        out.append("\nItinerary for ").append(destination)
+           .append(" (").append(String.valueOf(dayCount)).append(" day(s))\n");
+        out.append("Mode of Transportation: ").append(transportMode).append("\n------------------------------\n");
+    }
+
+    static void writeDay(DayPlan day, Appendable out) throws IOException {
+        out.append("Day ").append(String.valueOf(day.number())).append(":\n");
+        for (String activity : day.activities()) {
+            out.append("  - ").append(activity).append("\n");
+        }
+        out.append("  - Evening: ").append(day.evening()).append("\n");
+        if (day.hasTravel()) out.append(travelLine(day)).append("\n");
+        out.append("\n");
+    }
+
+    /** Streams the text layout day by day; lazy itineraries never hold more than one day. */
+    public void writeTo(Appendable out) throws IOException {
+        writeHeader(out);
+        for (int number = 1; number <= dayCount; number++) {
+            writeDay(day(number), out);
+        }
+    }
+
+    /**
+     * Parses the layout produced by {@link #writeTo}. Blank lines are ignored; anything else
+     * that does not fit the layout is rejected with an {@link IllegalArgumentException}.
+     */
+    public static Itinerary parse(CharSequence text) {
+        String destination = null;
+        String transportMode = null;
+        List<DayPlan> days = new ArrayList<>();
+        int dayNumber = -1;
+        List<String> activities = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : text.toString().split("\r?\n|\r")) {
+            lineNo++;
+            if (line.isBlank() || line.equals("------------------------------")) continue;
+            if (destination == null) {
+                int open = line.lastIndexOf(" (");
+                if (!line.startsWith("Itinerary for ") || open < 0) throw badLine(lineNo, line);
+                destination = line.substring("Itinerary for ".length(), open);
+            } else if (transportMode == null) {
+                if (!line.startsWith("Mode of Transportation: ")) throw badLine(lineNo, line);
+                transportMode = line.substring("Mode of Transportation: ".length());
+            } else if (line.startsWith("Day ") && line.endsWith(":")) {
+                if (dayNumber >= 0) throw badLine(lineNo, line); // previous day had no evening
+                try {
+                    dayNumber = Integer.parseInt(line.substring(4, line.length() - 1).trim());
+                } catch (NumberFormatException e) {
+                    throw badLine(lineNo, line);
+                }
+            } else if (dayNumber >= 0 && line.startsWith("  - Evening: ")) {
+                days.add(new DayPlan(dayNumber, activities, line.substring("  - Evening: ".length())));
+                activities.clear();
+                dayNumber = -1;
+            } else if (dayNumber >= 0 && line.startsWith("  - ")) {
+                activities.add(line.substring(4));
+            } else if (dayNumber < 0 && !days.isEmpty() && line.startsWith(TRAVEL_PREFIX) && line.endsWith(" km")
+                    && !days.get(days.size() - 1).hasTravel()) {
+                DayPlan last = days.get(days.size() - 1);
+                double km;
+                try {
+                    km = Double.parseDouble(line.substring(TRAVEL_PREFIX.length(), line.length() - 3));
+                } catch (NumberFormatException e) {
+                    throw badLine(lineNo, line);
+                }
+                days.set(days.size() - 1, new DayPlan(last.number(), last.activities(), last.evening(), km));
+            } else {
+                throw badLine(lineNo, line);
+            }
+        }
+        if (transportMode == null || dayNumber >= 0) {
+            throw new IllegalArgumentException("Incomplete itinerary text");
+        }
+        return new Itinerary(destination, transportMode, days);
+    }
+
+    private static IllegalArgumentException badLine(int lineNo, String line) {
+        return new IllegalArgumentException("Unexpected itinerary line " + lineNo + ": " + line);
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder(64 + Math.min(dayCount, 1 << 20) * 96);
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+}
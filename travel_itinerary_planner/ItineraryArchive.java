@@ -0,0 +1,248 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Versioned binary itinerary format (".itb"), saved next to the plain text export.
+ *
+ * <pre>
+ * header   magic "TIPB", u16 version, u16 flags, dayCount, slotsPerDay, stringCount,
+ *          destination id, transport id, string offsets pos, string data pos, days pos
+ * strings  int[stringCount + 1] end offsets, then UTF-8 bytes
+ * days     dayCount fixed-width records: day number, activity count, evening id, travel km
+ *          (float, NaN when not routed; version 2+), slotsPerDay activity ids (-1 when unused)
+ * </pre>
+ *
+ * All integers are 32-bit big-endian; version 1 files, which lack the travel field, still
+ * open. Each distinct activity is stored once in the string table. {@link #open} maps the
+ * file and returns a lazy {@link Itinerary} whose days are decoded from the mapping on
+ * access, so opening a large archive copies nothing to the heap. Every position, count and
+ * string id is checked against the file when it is opened, so a damaged archive fails there
+ * with an {@link IOException} rather than later, while a day is being shown.
+ */
+public final class ItineraryArchive {
+    public static final String EXTENSION = ".itb";
+    static final int MAGIC = 0x54495042; // "TIPB"
+    static final int VERSION = 2;
+    static final int FLAG_UNIFORM_DAYS = 1;
+    static final int HEADER_BYTES = 44;
+
+    private ItineraryArchive() {}
+
+    public static boolean isArchive(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+
+    public static void write(Itinerary itinerary, Path path) throws IOException {
+        // Pass 1: string table and record width
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        int destinationId = intern(ids, itinerary.destination());
+        int transportId = intern(ids, itinerary.transportMode());
+        int slots = 0;
+        boolean uniform = true;
+        int days = itinerary.dayCount();
+        for (int d = 1; d <= days; d++) {
+            DayPlan day = itinerary.day(d);
+            for (String activity : day.activities()) intern(ids, activity);
+            intern(ids, day.evening());
+            if (d > 1 && (day.activities().size() != slots || day.hasTravel() != itinerary.day(1).hasTravel())) {
+                uniform = false;
+            }
+            slots = Math.max(slots, day.activities().size());
+        }
+        List<byte[]> strings = new ArrayList<>(ids.size());
+        int stringBytes = 0;
+        for (String s : ids.keySet()) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            strings.add(b);
+            stringBytes += b.length;
+        }
+        int offsetsPos = HEADER_BYTES;
+        int dataPos = offsetsPos + 4 * (strings.size() + 1);
+        int daysPos = dataPos + stringBytes;
+        long total = daysPos + (long) days * recordBytes(VERSION, slots);
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Itinerary too large for archive format: " + total + " bytes");
+        }
+
+        // Pass 2: write to a temp file, then move into place
+        Path target = ItineraryIO.saveTarget(path);
+        Path tmp = ItineraryIO.createPartFile(target);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(uniform ? FLAG_UNIFORM_DAYS : 0);
+                out.writeInt(days);
+                out.writeInt(slots);
+                out.writeInt(strings.size());
+                out.writeInt(destinationId);
+                out.writeInt(transportId);
+                out.writeInt(offsetsPos);
+                out.writeInt(dataPos);
+                out.writeInt(daysPos);
+                out.writeInt(0); // reserved
+                int end = 0;
+                out.writeInt(0);
+                for (byte[] b : strings) {
+                    end += b.length;
+                    out.writeInt(end);
+                }
+                for (byte[] b : strings) out.write(b);
+                for (int d = 1; d <= days; d++) {
+                    DayPlan day = itinerary.day(d);
+                    List<String> activities = day.activities();
+                    out.writeInt(day.number());
+                    out.writeInt(activities.size());
+                    out.writeInt(ids.get(day.evening()));
+                    out.writeFloat((float) day.travelKm());
+                    for (int i = 0; i < slots; i++) {
+                        out.writeInt(i < activities.size() ? ids.get(activities.get(i)) : -1);
+                    }
+                }
+            }
+            ItineraryIO.replaceWith(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static int intern(Map<String, Integer> ids, String s) {
+        return ids.computeIfAbsent(s, k -> ids.size());
+    }
+
+    private static int recordBytes(int version, int slots) {
+        return fixedBytes(version) + 4 * slots;
+    }
+
+    // Bytes before the activity ids in a day record
+    private static int fixedBytes(int version) {
+        return version >= 2 ? 16 : 12;
+    }
+
+    /** Maps {@code path} read-only and returns a lazily decoded view of it. */
+    public static Itinerary open(Path path) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an itinerary archive: " + path);
+            }
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new Reader(map, path).itinerary();
+    }
+
+    private static final class Reader {
+        private final ByteBuffer map;
+        private final int dayCount;
+        private final int slots;
+        private final int stringCount;
+        private final int offsetsPos;
+        private final int dataPos;
+        private final int daysPos;
+        private final int recordBytes;
+        private final int version;
+        private final String[] decoded;
+        private final boolean uniform;
+        private final String destination;
+        private final String transportMode;
+
+        Reader(ByteBuffer map, Path path) throws IOException {
+            this.map = map;
+            if (map.getInt(0) != MAGIC) throw new IOException("Not an itinerary archive: " + path);
+            version = map.getShort(4);
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported archive version " + version + ": " + path);
+            uniform = (map.getShort(6) & FLAG_UNIFORM_DAYS) != 0;
+            dayCount = map.getInt(8);
+            slots = map.getInt(12);
+            stringCount = map.getInt(16);
+            int destinationId = map.getInt(20);
+            int transportId = map.getInt(24);
+            offsetsPos = map.getInt(28);
+            dataPos = map.getInt(32);
+            daysPos = map.getInt(36);
+            int capacity = map.capacity();
+            if (dayCount < 0 || slots < 0 || slots > (capacity - HEADER_BYTES) / 4 || stringCount < 0 || offsetsPos < HEADER_BYTES
+                    || offsetsPos + 4L * (stringCount + 1L) > dataPos || dataPos > daysPos
+                    || daysPos + (long) dayCount * recordBytes(version, slots) > capacity
+                    || !isString(destinationId) || !isString(transportId)) {
+                throw new IOException("Corrupt itinerary archive header: " + path);
+            }
+            recordBytes = recordBytes(version, slots);
+            checkStrings(path);
+            checkDays(path);
+            decoded = new String[stringCount];
+            destination = string(destinationId);
+            transportMode = string(transportId);
+        }
+
+        private boolean isString(int id) {
+            return id >= 0 && id < stringCount;
+        }
+
+        // End offsets must start at 0, never decrease and stay inside the string data
+        private void checkStrings(Path path) throws IOException {
+            int limit = daysPos - dataPos;
+            int previous = 0;
+            for (int id = 0; id <= stringCount; id++) {
+                int end = map.getInt(offsetsPos + 4 * id);
+                if (end < previous || end > limit || (id == 0 && end != 0)) {
+                    throw new IOException("Corrupt itinerary archive string table: " + path);
+                }
+                previous = end;
+            }
+        }
+
+        // A sequential pass over the records: far cheaper than decoding them, and it keeps day() from failing later
+        private void checkDays(Path path) throws IOException {
+            int fixed = fixedBytes(version);
+            for (int day = 0; day < dayCount; day++) {
+                int pos = daysPos + day * recordBytes;
+                int count = map.getInt(pos + 4);
+                boolean ok = count >= 0 && count <= slots && isString(map.getInt(pos + 8));
+                for (int i = 0; ok && i < count; i++) ok = isString(map.getInt(pos + fixed + 4 * i));
+                if (!ok) throw new IOException("Corrupt itinerary archive, day record " + (day + 1) + ": " + path);
+            }
+        }
+
+        Itinerary itinerary() {
+            return new Itinerary(destination, transportMode, dayCount, uniform ? slots : -1, this::day);
+        }
+
+        // Ids were checked by checkDays
+        private String string(int id) {
+            String s = decoded[id];
+            if (s == null) {
+                int start = map.getInt(offsetsPos + 4 * id);
+                int end = map.getInt(offsetsPos + 4 * (id + 1));
+                s = StandardCharsets.UTF_8.decode(map.slice(dataPos + start, end - start)).toString();
+                decoded[id] = s;
+            }
+            return s;
+        }
+
+        private DayPlan day(int number) {
+            int pos = daysPos + (number - 1) * recordBytes;
+            int count = map.getInt(pos + 4);
+            int ids = pos + fixedBytes(version);
+            String[] activities = new String[count];
+            for (int i = 0; i < count; i++) {
+                activities[i] = string(map.getInt(ids + 4 * i));
+            }
+            double travelKm = version >= 2 ? map.getFloat(pos + 12) : Double.NaN;
+            return new DayPlan(map.getInt(pos), List.of(activities), string(map.getInt(pos + 8)), travelKm);
+        }
+    }
+}
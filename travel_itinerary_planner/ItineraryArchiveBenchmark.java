@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares opening a large itinerary from the text export (read + parse) with mapping the
+ * binary archive and touching a few days. Format correctness is covered by
+ * {@link ItineraryArchiveCheck}.
+ */
+public class ItineraryArchiveBenchmark {
+    public static void main(String[] args) throws Exception {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        ItineraryEngine engine = new ItineraryEngine();
+        Path text = Files.createTempFile("itinerary", ".txt");
+        Path archive = Files.createTempFile("itinerary", ItineraryArchive.EXTENSION);
+        try {
+            Itinerary big = engine.stream(new ItineraryRequest("Goa", days, 0b11111, 0b11111, "Car"));
+            ItineraryIO.writeItinerary(big, text, p -> {}, () -> false);
+            ItineraryArchive.write(big, archive);
+            Bench.header(String.format("Open %d-day itinerary: text %.1f MB, archive %.1f MB",
+                days, Files.size(text) / 1e6, Files.size(archive) / 1e6));
+            Bench.nanosPerOp("read + parse text export", 2, 10,
+                () -> Itinerary.parse(read(text)).dayCount());
+            Bench.nanosPerOp("map archive + read first/last day", 20, 200, () -> {
+                Itinerary it = open(archive);
+                return it.day(1).activities().size() + it.day(it.dayCount()).activities().size();
+            });
+            Bench.nanosPerOp("map archive + decode every day", 2, 10,
+                () -> open(archive).dayStream().mapToLong(d -> d.activities().size()).sum());
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    private static String read(Path path) {
+        try {
+            return Files.readString(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Itinerary open(Path path) {
+        try {
+            return ItineraryArchive.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
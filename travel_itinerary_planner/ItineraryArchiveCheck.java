@@ -0,0 +1,143 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Round-trip check for {@link ItineraryArchive}: each case goes text -> archive -> text and
+ * must come back unchanged. Covers generated trips, uneven hand-edited days, non-ASCII names,
+ * zero- and one-day trips, version 1 archives, and damaged archives, which must fail in
+ * {@link ItineraryArchive#open} with an {@link IOException}. Exits with status 1 on a failure.
+ */
+public class ItineraryArchiveCheck {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path archive = Files.createTempFile("itinerary-check", ItineraryArchive.EXTENSION);
+        try {
+            ItineraryEngine engine = new ItineraryEngine();
+            for (int mask = 0; mask < 1024; mask += 93) {
+                roundTrip("generated, mask " + mask, engine.generate(
+                    new ItineraryRequest("Goa", 1 + mask % 40, mask & 31, mask >> 5, "Flight")).toText(), archive);
+            }
+            roundTrip("uneven days", header("Paris", 3, "Walking")
+                + "Day 1:\n  - Louvre\n  - Tuileries\n  - Evening: Seine cruise\n  Travel: 3.5 km\n\n"
+                + "Day 2:\n  - Evening: Opera\n\n"
+                + "Day 3:\n  - Orsay\n  - Evening: Montmartre\n\n", archive);
+            roundTrip("non-ASCII names", header("Z\u00fcrich \u6771\u4eac", 2, "Public Transport")
+                + "Day 1:\n  - Caf\u00e9 de Flore\n  - \u6771\u4eac\u30bf\u30ef\u30fc\n  - Evening: Fondue \ud83e\uddc0\n\n"
+                + "Day 2:\n  - Caf\u00e9 de Flore\n  - Evening: \u0160koda museum\n\n", archive);
+            roundTrip("zero-day trip", header("Goa", 0, "Car"), archive);
+            roundTrip("one-day trip", header("Goa", 1, "Car") + "Day 1:\n  - Baga Beach\n  - Evening: Beach shack\n\n", archive);
+
+            String v1Text = header("Jaipur", 2, "Car") + "Day 1:\n  - Amber Fort\n  - Evening: Chokhi Dhani\n\n"
+                + "Day 2:\n  - Hawa Mahal\n  - City Palace\n  - Evening: Rooftop dinner\n\n";
+            writeVersion1(Itinerary.parse(v1Text), archive);
+            check("version 1 archive", v1Text.equals(ItineraryArchive.open(archive).toText()));
+
+            ItineraryArchive.write(Itinerary.parse(v1Text), archive);
+            byte[] good = Files.readAllBytes(archive);
+            int offsetsPos = ByteBuffer.wrap(good).getInt(28), daysPos = ByteBuffer.wrap(good).getInt(36);
+            corrupt("huge string count", good, 16, Integer.MAX_VALUE, archive);
+            corrupt("negative day count", good, 8, -1, archive);
+            corrupt("negative activity count", good, daysPos + 4, -1, archive);
+            corrupt("activity count above slots", good, daysPos + 4, 99, archive);
+            corrupt("evening id out of range", good, daysPos + 8, 1000, archive);
+            corrupt("string offset past the data", good, offsetsPos + 4, 1 << 20, archive);
+            corrupt("string offsets before the header", good, 28, 0, archive);
+        } finally {
+            Files.deleteIfExists(archive);
+        }
+        System.out.println(failures == 0 ? "archive round trips: ok" : failures + " archive check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static String header(String destination, int days, String mode) {
+        return "\nItinerary for " + destination + " (" + days + " day(s))\nMode of Transportation: " + mode
+            + "\n------------------------------\n";
+    }
+
+    // The text must survive text -> archive -> text, and parse back to the same text again
+    private static void roundTrip(String name, String text, Path archive) throws IOException {
+        String expected = Itinerary.parse(text).toText();
+        check(name + ": canonical text", expected.equals(text));
+        ItineraryArchive.write(Itinerary.parse(text), archive);
+        String actual = ItineraryArchive.open(archive).toText();
+        check(name, expected.equals(actual) && Itinerary.parse(actual).toText().equals(expected));
+    }
+
+    private static void corrupt(String name, byte[] good, int offset, int value, Path archive) throws IOException {
+        byte[] bytes = good.clone();
+        ByteBuffer.wrap(bytes).putInt(offset, value);
+        Files.write(archive, bytes);
+        try {
+            ItineraryArchive.open(archive).toText();
+            check(name + " rejected on open", false);
+        } catch (IOException expected) {
+            check(name, true);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            check(name + " rejected on open, not with " + e, false);
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+    // Version 1 layout: no flags, 12-byte day records without the travel field
+    private static void writeVersion1(Itinerary itinerary, Path path) throws IOException {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        ids.put(itinerary.destination(), 0);
+        ids.putIfAbsent(itinerary.transportMode(), ids.size());
+        int slots = 0;
+        for (DayPlan day : itinerary.days()) {
+            for (String activity : day.activities()) ids.putIfAbsent(activity, ids.size());
+            ids.putIfAbsent(day.evening(), ids.size());
+            slots = Math.max(slots, day.activities().size());
+        }
+        List<byte[]> strings = new ArrayList<>();
+        int stringBytes = 0;
+        for (String s : ids.keySet()) {
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+            stringBytes += strings.get(strings.size() - 1).length;
+        }
+        int offsetsPos = ItineraryArchive.HEADER_BYTES;
+        int dataPos = offsetsPos + 4 * (strings.size() + 1);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(ItineraryArchive.MAGIC);
+            out.writeShort(1);
+            out.writeShort(0);
+            out.writeInt(itinerary.dayCount());
+            out.writeInt(slots);
+            out.writeInt(strings.size());
+            out.writeInt(ids.get(itinerary.destination()));
+            out.writeInt(ids.get(itinerary.transportMode()));
+            out.writeInt(offsetsPos);
+            out.writeInt(dataPos);
+            out.writeInt(dataPos + stringBytes);
+            out.writeInt(0);
+            int end = 0;
+            out.writeInt(0);
+            for (byte[] b : strings) out.writeInt(end += b.length);
+            for (byte[] b : strings) out.write(b);
+            for (DayPlan day : itinerary.days()) {
+                out.writeInt(day.number());
+                out.writeInt(day.activities().size());
+                out.writeInt(ids.get(day.evening()));
+                for (int i = 0; i < slots; i++) {
+                    out.writeInt(i < day.activities().size() ? ids.get(day.activities().get(i)) : -1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Single-request latency and batch throughput: ItineraryEngine vs the original string-building
+ * path. The comparison engine skips route optimization, which the legacy path never did.
+ */
+public class ItineraryBenchmark {
+    public static void main(String[] args) {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        ItineraryEngine engine = new ItineraryEngine(ActivityCatalog.bundled(), ForkJoinPool.commonPool(), null);
+        ItineraryRequest request = new ItineraryRequest("Goa", 7, 0b11111, 0b11111, "Car");
+        boolean[] attractions = {true, true, true, true, true};
+        boolean[] interests = {true, true, true, true, true};
+
+        List<ItineraryRequest> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new ItineraryRequest("City" + (i % 100), 1 + i % 14, i & 0b11111, (i >> 5) & 0b11111,
+                ItineraryRequest.TRANSPORT_MODES.get(i % ItineraryRequest.TRANSPORT_MODES.size())));
+        }
+
+        Bench.header("Itinerary generation");
+        Bench.nanosPerOp("legacy string build (7 days)", 50_000, 200_000,
+            () -> legacyPlan("Goa", 7, "Car", attractions, interests).length());
+        Bench.nanosPerOp("engine generate (7 days)", 50_000, 200_000,
+            () -> engine.generate(request).dayCount());
+        Bench.nanosPerOp("engine generate + toText (7 days)", 50_000, 200_000,
+            () -> engine.generate(request).toText().length());
+        Bench.throughput("legacy batch, single thread", 3, 10, batchSize, () -> {
+            long n = 0;
+            for (ItineraryRequest r : batch) {
+                n += legacyPlan(r.destination(), r.days(), r.transportMode(),
+                    flags(r.attractionMask()), flags(r.interestMask())).length();
+            }
+            return n;
+        });
+        Bench.throughput("engine generateBatch", 3, 10, batchSize,
+            () -> engine.generateBatch(batch).size());
+        Bench.throughput("engine generateBatch + toText", 3, 10, batchSize,
+            () -> engine.generateBatch(batch).stream().mapToLong(it -> it.toText().length()).sum());
+    }
+
+    private static boolean[] flags(int mask) {
+        boolean[] flags = new boolean[5];
+        for (int i = 0; i < flags.length; i++) flags[i] = (mask & (1 << i)) != 0;
+        return flags;
+    }
+
+    // Verbatim copy of the pre-engine generateItinerary() body, with checkboxes replaced by flags
+    private static String legacyPlan(String destination, int days, String transportMode, boolean[] a, boolean[] in) {
+        String[][] activities = {
+            {"Visit Historical Museum", "Explore Art Gallery", "Tour Science Museum"},
+            {"Morning Walk in City Park", "Picnic at Botanical Garden", "Hike in Nature Reserve"},
+            {"Breakfast at Local Cafe", "Coffee Tasting at Specialty Cafe", "Dessert at Patisserie"},
+            {"Street Food Tour", "Fine Dining Experience", "Local Cooking Class", "Food Market Exploration"},
+            {"Kayaking Adventure", "Rock Climbing", "Ziplining Tour", "Paragliding Experience"},
+            {"Spa Day", "Beach Relaxation", "Yoga Retreat", "Meditation Session"},
+            {"Street Food Stall Crawl", "Night Market Food Tour", "Local Snack Tasting"},
+            {"Dinner at Michelin-Star Restaurant", "Wine Tasting Dinner", "Gourmet Tasting Menu"},
+            {"Visit Ancient Ruins", "Tour Historical Landmarks", "Attend Cultural Festival"},
+            {"Shop at Local Markets", "Visit Luxury Malls", "Explore Artisan Boutiques"},
+            {"Live Music Event", "Rooftop Bar Visit", "Cultural Dance Show", "Night Market Stroll"}
+        };
+        StringBuilder plan = new StringBuilder("\nItinerary for " + destination + " (" + days + " day(s))\n");
+        plan.append("Mode of Transportation: ").append(transportMode).append("\n------------------------------\n");
+        for (int i = 1; i <= days; i++) {
+            plan.append("Day ").append(i).append(":\n");
+            if (a[0]) plan.append("  - ").append(activities[0][(i - 1) % activities[0].length]).append("\n");
+            if (a[1]) plan.append("  - ").append(activities[1][(i - 1) % activities[1].length]).append("\n");
+            if (a[2]) plan.append("  - ").append(activities[2][(i - 1) % activities[2].length]).append("\n");
+            if (in[0]) plan.append("  - ").append(activities[3][(i - 1) % activities[3].length]).append("\n");
+            if (in[1]) plan.append("  - ").append(activities[4][(i - 1) % activities[4].length]).append("\n");
+            if (in[2]) plan.append("  - ").append(activities[5][(i - 1) % activities[5].length]).append("\n");
+            if (a[3]) plan.append("  - ").append(activities[6][(i - 1) % activities[6].length]).append("\n");
+            if (a[4]) plan.append("  - ").append(activities[7][(i - 1) % activities[7].length]).append("\n");
+            if (in[3]) plan.append("  - ").append(activities[8][(i - 1) % activities[8].length]).append("\n");
+            if (in[4]) plan.append("  - ").append(activities[9][(i - 1) % activities[9].length]).append("\n");
+            plan.append("  - Evening: ").append(activities[10][(i - 1) % activities[10].length]).append("\n\n");
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,237 @@
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Position;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Keeps a text {@link Document} in step with a changing {@link Itinerary} without replacing
+ * the whole text. Each day's block is tracked by a {@link Position} at its {@code Day N:} line,
+ * so the blocks stay found while the text around them is edited. An update skips days whose
+ * plan is unchanged and, for the rest, replaces only the part between the longest common
+ * prefix and suffix of the block's current text and its new text; a category toggled on or off
+ * therefore becomes one small insert or remove per day. Scroll position, caret and manual edits
+ * outside the changed lines survive.
+ *
+ * <p>Every document edit carries a fixed cost in Swing's element and position bookkeeping,
+ * so for long trips {@link #update(Itinerary, int, int)} edits only the days on screen right
+ * away and brings the rest up to date in short slices on later EDT events. A newer update
+ * simply retargets the remaining slices; {@link #finishPendingEdits} completes them at once
+ * for code that reads the text.
+ *
+ * <p>When the destination or number of days changes, or the document no longer has a
+ * {@code Day N:} line where one is tracked, the text is replaced as a whole. EDT only, like
+ * the document itself.
+ */
+public final class ItineraryDocument {
+    // Longest stretch of deferred edits run per EDT event
+    private static final long SLICE_NANOS = 4_000_000;
+
+    private final Document document;
+    private Itinerary target;
+    private DayPlan[] shownDays = new DayPlan[0]; // what each day's block currently says
+    private String shownMode;
+    private Position[] dayStarts = new Position[0];
+    private int sweepFrom;
+    private boolean sweepQueued;
+    private int lastEdits;
+
+    public ItineraryDocument(Document document) {
+        this.document = document;
+    }
+
+    public Document document() {
+        return document;
+    }
+
+    /** The itinerary the document shows, or is being brought in line with; null before the first one. */
+    public Itinerary itinerary() {
+        return target;
+    }
+
+    /** Number of insert and remove operations made since the last {@link #update} or {@link #replace} began. */
+    public int lastEditCount() {
+        return lastEdits;
+    }
+
+    /** True while days are still waiting for their deferred edits. */
+    public boolean hasPendingEdits() {
+        return target != null && sweepFrom <= target.dayCount();
+    }
+
+    /** Replaces the whole text with {@code itinerary}. */
+    public void replace(Itinerary itinerary) {
+        String text = itinerary.toText();
+        try {
+            document.remove(0, document.getLength());
+            document.insertString(0, text, null);
+            Position[] starts = new Position[itinerary.dayCount()];
+            DayPlan[] days = new DayPlan[itinerary.dayCount()];
+            int offset = headerText(itinerary).length();
+            for (int day = 1; day <= starts.length; day++) {
+                starts[day - 1] = document.createPosition(offset);
+                days[day - 1] = itinerary.day(day);
+                offset += dayText(days[day - 1]).length();
+            }
+            dayStarts = starts;
+            shownDays = days;
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e); // offsets come from the text just inserted
+        }
+        target = itinerary;
+        shownMode = itinerary.transportMode();
+        sweepFrom = itinerary.dayCount() + 1;
+        lastEdits = 2;
+    }
+
+    /**
+     * Brings the whole document in line with {@code next} with the fewest edits it can.
+     * Returns false when it had to fall back to {@link #replace}.
+     */
+    public boolean update(Itinerary next) {
+        boolean incremental = update(next, 1, next.dayCount());
+        finishPendingEdits();
+        return incremental;
+    }
+
+    /**
+     * Like {@link #update(Itinerary)}, but only days {@code firstDay..lastDay} (the visible ones)
+     * are edited now; the rest follow in slices on later EDT events.
+     */
+    public boolean update(Itinerary next, int firstDay, int lastDay) {
+        if (target == null || !target.destination().equals(next.destination()) || target.dayCount() != next.dayCount()
+                || !intact()) {
+            replace(next);
+            return false;
+        }
+        target = next;
+        lastEdits = 0;
+        try {
+            if (!shownMode.equals(next.transportMode())) {
+                patch(0, dayStarts.length > 0 ? dayStarts[0].getOffset() : document.getLength(), headerText(next));
+                shownMode = next.transportMode();
+            }
+            for (int day = Math.max(1, firstDay); day <= Math.min(lastDay, next.dayCount()); day++) {
+                updateDay(day);
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e); // ranges come from live positions
+        }
+        sweepFrom = 1;
+        if (!sweepQueued) {
+            sweepQueued = true;
+            SwingUtilities.invokeLater(this::sweep);
+        }
+        return true;
+    }
+
+    /** Applies every deferred edit now. */
+    public void finishPendingEdits() {
+        sweep(Long.MAX_VALUE);
+    }
+
+    private void sweep() {
+        sweepQueued = false;
+        sweep(SLICE_NANOS);
+        if (hasPendingEdits() && !sweepQueued) {
+            sweepQueued = true;
+            SwingUtilities.invokeLater(this::sweep);
+        }
+    }
+
+    private void sweep(long budgetNanos) {
+        if (target == null) return;
+        long start = System.nanoTime();
+        try {
+            while (sweepFrom <= target.dayCount()) {
+                updateDay(sweepFrom++);
+                if ((sweepFrom & 7) == 0 && System.nanoTime() - start > budgetNanos) break;
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void updateDay(int day) throws BadLocationException {
+        DayPlan plan = target.day(day);
+        if (plan.equals(shownDays[day - 1])) return;
+        int start = dayStarts[day - 1].getOffset();
+        int end = day < dayStarts.length ? dayStarts[day].getOffset() : document.getLength();
+        patch(start, end, dayText(plan));
+        shownDays[day - 1] = plan;
+    }
+
+    /** 1-based day whose block contains {@code offset}; 1 for the header. */
+    public int dayAt(int offset) {
+        int lo = 0, hi = dayStarts.length - 1, found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dayStarts[mid].getOffset() <= offset) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found + 1;
+    }
+    // Replaces [start, end) with replacement, touching only what differs
+    private void patch(int start, int end, String replacement) throws BadLocationException {
+        String current = document.getText(start, end - start);
+        int max = Math.min(current.length(), replacement.length());
+        int prefix = 0;
+        while (prefix < max && current.charAt(prefix) == replacement.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+                && current.charAt(current.length() - 1 - suffix) == replacement.charAt(replacement.length() - 1 - suffix)) {
+            suffix++;
+        }
+        int removed = current.length() - prefix - suffix;
+        if (removed > 0) {
+            document.remove(start + prefix, removed);
+            lastEdits++;
+        }
+        if (replacement.length() - prefix - suffix > 0) {
+            document.insertString(start + prefix, replacement.substring(prefix, replacement.length() - suffix), null);
+            lastEdits++;
+        }
+    }
+
+    // Each tracked position must still sit on its "Day N:" line
+    private boolean intact() {
+        if (dayStarts.length != target.dayCount()) return false;
+        try {
+            for (int day = 1; day <= dayStarts.length; day++) {
+                String label = "Day " + day + ":";
+                int offset = dayStarts[day - 1].getOffset();
+                if (offset + label.length() > document.getLength() || !document.getText(offset, label.length()).equals(label)) {
+                    return false;
+                }
+            }
+        } catch (BadLocationException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private static String headerText(Itinerary itinerary) {
+        StringBuilder sb = new StringBuilder(96);
+        try {
+            itinerary.writeHeader(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    private static String dayText(DayPlan day) {
+        StringBuilder sb = new StringBuilder(128);
+        try {
+            Itinerary.writeDay(day, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * UI-free itinerary generation over an {@link ActivityCatalog}. With a {@link RouteOptimizer}
+ * each day's stops are reordered to shorten travel and the day records its distance; days
+ * with a single stop, or a stop the catalog has no coordinates for, keep the category order
+ * and no distance.
+ * Instances are safe to share across threads.
+ */
+public final class ItineraryEngine {
+    // Below this many days, routing on the caller's thread beats forking
+    private static final int PARALLEL_ROUTING_DAYS = 4;
+
+    private final ActivityCatalog catalog;
+    private final ForkJoinPool pool;
+    private final RouteOptimizer routes;
+
+    public ItineraryEngine() {
+        this(ActivityCatalog.bundled(), ForkJoinPool.commonPool());
+    }
+
+    public ItineraryEngine(ActivityCatalog catalog, ForkJoinPool pool) {
+        this(catalog, pool, new RouteOptimizer(catalog));
+    }
+
+    /** {@code routes} may be null to keep the catalog's category order. */
+    public ItineraryEngine(ActivityCatalog catalog, ForkJoinPool pool, RouteOptimizer routes) {
+        this.catalog = catalog;
+        this.pool = pool;
+        this.routes = routes;
+    }
+
+    public ActivityCatalog catalog() {
+        return catalog;
+    }
+
+    public Itinerary generate(ItineraryRequest request) {
+        ActivityCatalog.Selection selection = catalog.select(request.destination(), request.preferenceMask());
+        String city = request.destination();
+        if (routes != null && request.days() >= PARALLEL_ROUTING_DAYS) {
+            // Days are independent, so they are routed in parallel on the engine's pool
+            List<DayPlan> days = pool.submit(() -> IntStream.rangeClosed(1, request.days()).parallel()
+                .mapToObj(day -> dayPlan(city, selection, day)).toList()).join();
+            return new Itinerary(city, request.transportMode(), days);
+        }
+        List<DayPlan> days = new ArrayList<>(request.days());
+        for (int day = 1; day <= request.days(); day++) {
+            days.add(dayPlan(city, selection, day));
+        }
+        return new Itinerary(city, request.transportMode(), days);
+    }
+
+    /**
+     * Lazy variant of {@link #generate}: days are computed when read, so memory and
+     * time-to-first-day stay constant regardless of the requested duration.
+     */
+    public Itinerary stream(ItineraryRequest request) {
+        ActivityCatalog.Selection selection = catalog.select(request.destination(), request.preferenceMask());
+        // Routed days carry a Travel line, so days only share a length when all or none are routed;
+        // otherwise -1 makes readers index each day's lines
+        boolean uniform = routes == null || selection.slotCount() == 0 || selection.isLocated();
+        return new Itinerary(request.destination(), request.transportMode(), request.days(),
+            uniform ? selection.slotCount() : -1, day -> dayPlan(request.destination(), selection, day));
+    }
+
+    /** Generates every request on the engine's fork-join pool; results keep the input order. */
+    public List<Itinerary> generateBatch(List<ItineraryRequest> requests) {
+        if (requests.size() < 2) {
+            return requests.stream().map(this::generate).toList();
+        }
+        return pool.submit(() -> requests.parallelStream().map(this::generate).toList()).join();
+    }
+
+    private DayPlan dayPlan(String city, ActivityCatalog.Selection selection, int day) {
+        String[] activities = new String[selection.slotCount()];
+        int[] ids = new int[activities.length];
+        for (int slot = 0; slot < activities.length; slot++) {
+            ids[slot] = selection.activityId(slot, day);
+            activities[slot] = catalog.name(ids[slot]);
+        }
+        // Nothing to route on a day whose only stop is the evening
+        if (routes == null || ids.length == 0) return new DayPlan(day, List.of(activities), selection.evening(day));
+        RouteOptimizer.Route route = routes.route(city, ids, selection.eveningId(day));
+        if (!route.isRouted()) return new DayPlan(day, List.of(activities), selection.evening(day));
+        for (int i = 0; i < activities.length; i++) {
+            activities[i] = catalog.name(route.order()[i]);
+        }
+        return new DayPlan(day, List.of(activities), selection.evening(day), route.km());
+    }
+}
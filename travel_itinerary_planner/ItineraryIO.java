@@ -0,0 +1,209 @@
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Blocking itinerary file I/O meant to run off the EDT. Loads decode the file through an NIO
+ * channel in fixed-size chunks and append each chunk to a detached {@link PlainDocument}, which
+ * the caller then swaps into the text area in one step. Saves go to a temp file that replaces
+ * the target only once fully written, so a cancelled save never truncates the old file.
+ */
+final class ItineraryIO {
+    static final int CHUNK_BYTES = 1 << 18;
+
+    private ItineraryIO() {}
+
+    /**
+     * Reads {@code path} into a new document, normalizing CR/CRLF line ends to LF like the
+     * old line-by-line reader did. {@code progress} receives 0-100.
+     */
+    static PlainDocument readDocument(Path path, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        PlainDocument doc = new PlainDocument();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.max(1, channel.size());
+            ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_BYTES);
+            CharBuffer chars = CharBuffer.allocate((int) (CHUNK_BYTES * (double) decoder.maxCharsPerByte()) + 1);
+            char[] out = new char[chars.capacity()];
+            boolean skipLf = false;
+            long read = 0;
+            boolean eof = false;
+            while (!eof) {
+                if (cancelled.getAsBoolean()) throw new CancellationException();
+                int n = channel.read(bytes);
+                eof = n < 0;
+                if (n > 0) read += n;
+                bytes.flip();
+                decoder.decode(bytes, chars, eof);
+                if (eof) decoder.flush(chars);
+                bytes.compact();
+                chars.flip();
+                int len = 0;
+                while (chars.hasRemaining()) {
+                    char c = chars.get();
+                    if (c == '\r') {
+                        out[len++] = '\n';
+                        skipLf = true;
+                    } else {
+                        if (c != '\n' || !skipLf) out[len++] = c;
+                        skipLf = false;
+                    }
+                }
+                chars.clear();
+                if (len > 0) {
+                    try {
+                        doc.insertString(doc.getLength(), new String(out, 0, len), null);
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException(e); // appending at getLength() is always valid
+                    }
+                }
+                progress.accept((int) Math.min(100, read * 100 / size));
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Writes the document text as it was when the save started. The text is copied out under
+     * the read lock with plain array copies (a few milliseconds even for large files) and
+     * written after the lock is released, so edits on the EDT never wait for the disk.
+     */
+    static void writeDocument(Document doc, Path path, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        char[][] snapshot = new char[1][];
+        doc.render(() -> {
+            char[] text = new char[doc.getLength()];
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            try {
+                for (int offset = 0; offset < text.length; offset += segment.count) {
+                    doc.getText(offset, text.length - offset, segment);
+                    System.arraycopy(segment.array, segment.offset, text, offset, segment.count);
+                }
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // offsets stay within the locked length
+            }
+            snapshot[0] = text;
+        });
+        char[] text = snapshot[0];
+        writeAtomically(path, writer -> {
+            int length = text.length;
+            for (int offset = 0; offset < length; offset += CHUNK_BYTES) {
+                if (cancelled.getAsBoolean()) throw new CancellationException();
+                int end = Math.min(length, offset + CHUNK_BYTES);
+                writer.write(text, offset, end - offset);
+                progress.accept((int) ((long) end * 100 / length));
+            }
+        });
+    }
+
+    /** Streams a (possibly lazy) itinerary day by day. */
+    static void writeItinerary(Itinerary itinerary, Path path, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        writeAtomically(path, writer -> {
+            itinerary.writeHeader(writer);
+            int days = itinerary.dayCount();
+            for (int day = 1; day <= days; day++) {
+                if ((day & 0xFF) == 0) {
+                    if (cancelled.getAsBoolean()) throw new CancellationException();
+                    progress.accept((int) ((long) day * 100 / days));
+                }
+                Itinerary.writeDay(itinerary.day(day), writer);
+            }
+            progress.accept(100);
+        });
+    }
+
+    private interface WriteBody {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Where a save to {@code path} should land: the real file behind it when it exists, so
+     * saving through a symlink replaces the linked file instead of the link itself.
+     */
+    static Path saveTarget(Path path) throws IOException {
+        return Files.exists(path) ? path.toRealPath() : path.toAbsolutePath();
+    }
+
+    /**
+     * Moves a finished part file over {@code target}; atomically where the file system can,
+     * otherwise (some network and FUSE file systems) with a plain replacing move.
+     */
+    static void replaceWith(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Creates an empty {@code <name><random>.part} file next to {@code target} for an atomic
+     * replace. Unlike {@link Files#createTempFile}, which is owner-only on POSIX, it gets the
+     * permissions of the file it will replace, or the umask default when there is none yet.
+     */
+    static Path createPartFile(Path target) throws IOException {
+        Path tmp;
+        while (true) {
+            String suffix = Long.toUnsignedString(ThreadLocalRandom.current().nextLong());
+            tmp = target.resolveSibling(target.getFileName() + suffix + ".part");
+            try {
+                Files.createFile(tmp);
+                break;
+            } catch (FileAlreadyExistsException taken) {
+                // try another name
+            }
+        }
+        if (Files.exists(target)) {
+            try {
+                Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(target));
+            } catch (UnsupportedOperationException notPosix) {
+                // other file systems do not restrict temp files this way
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+        }
+        return tmp;
+    }
+
+    private static void writeAtomically(Path path, WriteBody body) throws IOException {
+        Path target = saveTarget(path);
+        Path tmp = createPartFile(target);
+        try {
+            CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, encoder, CHUNK_BYTES), CHUNK_BYTES)) {
+                body.write(writer);
+            }
+            replaceWith(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
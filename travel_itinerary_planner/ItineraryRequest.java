@@ -0,0 +1,39 @@
+import java.util.List;
+
+/**
+ * Immutable input for {@link ItineraryEngine}. Attractions and interests are
+ * bitmasks over {@link #ATTRACTIONS} and {@link #INTERESTS}, bit i = label i.
+ */
+public record ItineraryRequest(String destination, int days, int attractionMask, int interestMask, String transportMode) {
+    public static final List<String> ATTRACTIONS = List.of("Museums", "Parks", "Cafes", "Street Food", "Fine Dining");
+    public static final List<String> INTERESTS = List.of("Food", "Adventure", "Relaxation", "Cultural Sites", "Shopping");
+    public static final List<String> TRANSPORT_MODES = List.of("Car", "Public Transport", "Flight", "Walking", "Bicycle");
+
+    public ItineraryRequest {
+        if (destination == null || destination.isBlank()) {
+            throw new IllegalArgumentException("destination is required");
+        }
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be positive: " + days);
+        }
+        if (transportMode == null) {
+            throw new IllegalArgumentException("transportMode is required");
+        }
+        destination = destination.trim();
+        attractionMask &= (1 << ATTRACTIONS.size()) - 1;
+        interestMask &= (1 << INTERESTS.size()) - 1;
+    }
+
+    public boolean hasAttraction(int index) {
+        return (attractionMask & (1 << index)) != 0;
+    }
+
+    public boolean hasInterest(int index) {
+        return (interestMask & (1 << index)) != 0;
+    }
+
+    // Attractions in the low bits, interests above them
+    public int preferenceMask() {
+        return attractionMask | (interestMask << ATTRACTIONS.size());
+    }
+}
@@ -0,0 +1,631 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over a directory tree of saved itineraries ({@code .txt} and
+ * {@link ItineraryArchive#EXTENSION} files), ranked with BM25.
+ *
+ * <p>Each file becomes one document whose terms are the words of its destination, transport
+ * mode, activities and evenings, plus a {@code days:N} term for the trip length. Destination
+ * words count {@value #DESTINATION_WEIGHT} times, so a city name outranks the same word in an
+ * activity. Text files that are not in the itinerary layout are indexed word by word under
+ * their file name. Long trips repeat the same places, so only the first {@value #MAX_DAYS}
+ * days of a file are read.
+ *
+ * <p>Postings are kept per term as a byte array of (doc id delta, term frequency) varints,
+ * usually one or two bytes per posting. Doc ids only grow: a changed file is appended under a
+ * new id and its old id is marked dead, so every list stays sorted and delta-coded without
+ * being rewritten. Dead ids are skipped at query time and dropped by a compaction once they
+ * pass {@value #COMPACT_PERCENT}% of all ids. The initial build reads and tokenizes files in
+ * parallel, a batch at a time, and appends the batches in path order.
+ *
+ * <p>{@link #watch} follows the directory with a {@link WatchService} and re-indexes files as
+ * they are written, moved or deleted. Searches run under a read lock and never wait for file
+ * I/O, which happens before the write lock is taken.
+ */
+public final class ItinerarySearch implements Closeable {
+    static final int DESTINATION_WEIGHT = 3;
+    static final int MAX_DAYS = 1000;
+    private static final int COMPACT_PERCENT = 25;
+    private static final int BUILD_BATCH = 512;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final long MAX_TEXT_BYTES = 4 << 20;
+    private static final long SETTLE_MILLIS = 200;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final String DAYS_PREFIX = "days:";
+    private static final Pattern TRIP_LENGTH = Pattern.compile("(?:days:\\s*(\\d+))|(?:(\\d+)\\s*-?\\s*days?\\b)");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+
+    /** One ranked result. {@code days} and {@code transportMode} are 0 and empty for free-form text files. */
+    public record Hit(Path path, String destination, int days, String transportMode, double score) {}
+
+    private record Doc(Path path, String destination, int days, String transportMode, long modified, int length) {}
+
+    // A file read and tokenized, not yet in the index
+    private record Parsed(Doc doc, Map<String, Integer> frequencies) {}
+
+    private static final class Postings {
+        byte[] bytes = new byte[4];
+        int size;
+        int count;
+        int lastDoc = -1;
+
+        void add(int doc, int frequency) {
+            if (size + 10 > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 10));
+            size = putVarint(bytes, size, doc - lastDoc);
+            size = putVarint(bytes, size, frequency);
+            lastDoc = doc;
+            count++;
+        }
+    }
+
+    private final Path root;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Path, Integer> byPath = new HashMap<>();
+    private final BitSet dead = new BitSet();
+    private int[] lengths = new int[64]; // docs.get(id).length(), kept flat for scoring
+    private long liveLength;
+    private WatchService watcher;
+    private Thread watchThread;
+
+    private ItinerarySearch(Path root) {
+        this.root = root;
+    }
+
+    /** Indexes every itinerary under {@code root}; unreadable files are skipped. */
+    public static ItinerarySearch build(Path root) throws IOException {
+        return build(root, true);
+    }
+
+    static ItinerarySearch build(Path root, boolean parallel) throws IOException {
+        ItinerarySearch index = new ItinerarySearch(root.toAbsolutePath().normalize());
+        index.addAll(index.listFiles(), parallel);
+        return index;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /** Number of files in the index. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Total postings and the bytes they are stored in, as {postings, bytes}. */
+    public long[] postingsFootprint() {
+        lock.readLock().lock();
+        try {
+            long postings = 0, bytes = 0;
+            for (Postings p : terms.values()) {
+                postings += p.count;
+                bytes += p.size;
+            }
+            return new long[] {postings, bytes};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static boolean isIndexable(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".txt") || name.endsWith(ItineraryArchive.EXTENSION);
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(p -> isIndexable(p) && Files.isRegularFile(p)).sorted().toList();
+        }
+    }
+
+    // Reads in parallel a batch at a time, so only one batch of term maps is held at once
+    private void addAll(List<Path> paths, boolean parallel) {
+        for (int from = 0; from < paths.size(); from += BUILD_BATCH) {
+            List<Path> batch = paths.subList(from, Math.min(paths.size(), from + BUILD_BATCH));
+            List<Parsed> parsed = (parallel ? batch.parallelStream() : batch.stream())
+                .map(ItinerarySearch::read).filter(p -> p != null).toList();
+            lock.writeLock().lock();
+            try {
+                for (Parsed p : parsed) put(p);
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Null when the file vanished or cannot be read
+    private static Parsed read(Path path) {
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (ItineraryArchive.isArchive(path)) return parsed(path, ItineraryArchive.open(path), modified);
+            String text;
+            if (Files.size(path) > MAX_TEXT_BYTES) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    text = new String(in.readNBytes((int) MAX_TEXT_BYTES), Charset.defaultCharset());
+                }
+            } else {
+                text = new String(Files.readAllBytes(path), Charset.defaultCharset());
+            }
+            try {
+                return parsed(path, Itinerary.parse(text), modified);
+            } catch (IllegalArgumentException notAnItinerary) {
+                Map<String, Integer> frequencies = new HashMap<>();
+                int length = tokenize(text, 1, frequencies);
+                String name = path.getFileName().toString();
+                return new Parsed(new Doc(path, name, 0, "", modified, length), frequencies);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Missing, half-written, corrupt or foreign files are skipped: decoding a damaged
+            // archive can throw almost anything, and one bad file must not fail the whole build
+            return null;
+        }
+    }
+
+    private static Parsed parsed(Path path, Itinerary itinerary, long modified) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = tokenize(itinerary.destination(), DESTINATION_WEIGHT, frequencies);
+        length += tokenize(itinerary.transportMode(), 1, frequencies);
+        frequencies.merge(DAYS_PREFIX + itinerary.dayCount(), 1, Integer::sum);
+        for (int day = 1; day <= Math.min(itinerary.dayCount(), MAX_DAYS); day++) {
+            DayPlan plan = itinerary.day(day);
+            for (String activity : plan.activities()) length += tokenize(activity, 1, frequencies);
+            length += tokenize(plan.evening(), 1, frequencies);
+        }
+        Doc doc = new Doc(path, itinerary.destination(), itinerary.dayCount(), itinerary.transportMode(), modified, length + 1);
+        return new Parsed(doc, frequencies);
+    }
+
+    /** Adds each word of {@code text} to {@code frequencies} {@code weight} times; returns the weighted word count. */
+    static int tokenize(String text, int weight, Map<String, Integer> frequencies) {
+        int count = 0;
+        for (String token : tokens(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+            count += weight;
+        }
+        return count;
+    }
+
+    /** Lower-cased words without accents or stop words; "Caf&eacute;" and "cafe" are the same term. */
+    static List<String> tokens(String text) {
+        boolean ascii = true;
+        for (int i = 0; i < text.length() && ascii; i++) ascii = text.charAt(i) < 0x80;
+        if (!ascii) text = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(token)) out.add(token);
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // Caller holds the write lock
+    private void put(Parsed parsed) {
+        Path path = parsed.doc().path();
+        Integer old = byPath.get(path);
+        if (old != null) kill(old);
+        int id = docs.size();
+        docs.add(parsed.doc());
+        if (id == lengths.length) lengths = Arrays.copyOf(lengths, id * 2);
+        lengths[id] = parsed.doc().length();
+        byPath.put(path, id);
+        liveLength += parsed.doc().length();
+        for (Map.Entry<String, Integer> e : parsed.frequencies().entrySet()) {
+            terms.computeIfAbsent(e.getKey(), k -> new Postings()).add(id, e.getValue());
+        }
+    }
+
+    private void kill(int id) {
+        dead.set(id);
+        liveLength -= docs.get(id).length();
+    }
+
+    // Re-codes every list without the dead ids, renumbering the live ones in order
+    private void compactIfNeeded() {
+        int deadCount = dead.cardinality();
+        if (deadCount == 0 || deadCount * 100L < docs.size() * (long) COMPACT_PERCENT) return;
+        int[] remap = new int[docs.size()];
+        List<Doc> live = new ArrayList<>(docs.size() - deadCount);
+        for (int id = 0; id < docs.size(); id++) {
+            if (dead.get(id)) {
+                remap[id] = -1;
+            } else {
+                remap[id] = live.size();
+                live.add(docs.get(id));
+            }
+        }
+        var it = terms.entrySet().iterator();
+        while (it.hasNext()) {
+            Postings old = it.next().getValue();
+            Postings fresh = new Postings();
+            int[] cursor = {0, -1};
+            for (int i = 0; i < old.count; i++) {
+                int doc = nextDoc(old.bytes, cursor);
+                int frequency = nextVarint(old.bytes, cursor);
+                if (remap[doc] >= 0) fresh.add(remap[doc], frequency);
+            }
+            if (fresh.count == 0) {
+                it.remove();
+            } else {
+                old.bytes = Arrays.copyOf(fresh.bytes, fresh.size);
+                old.size = fresh.size;
+                old.count = fresh.count;
+                old.lastDoc = fresh.lastDoc;
+            }
+        }
+        docs.clear();
+        docs.addAll(live);
+        byPath.clear();
+        for (int id = 0; id < docs.size(); id++) {
+            byPath.put(docs.get(id).path(), id);
+            lengths[id] = docs.get(id).length();
+        }
+        dead.clear();
+    }
+
+    /**
+     * The best {@code limit} files for {@code query}. Files matching more of the query's words
+     * rank first, then by BM25 score. {@code days:5} or {@code 5 days} matches the trip length,
+     * and a last word not followed by a space also matches as a prefix, for search-as-you-type.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        Matcher m = TRIP_LENGTH.matcher(query.toLowerCase(Locale.ROOT));
+        StringBuilder rest = new StringBuilder();
+        int last = 0;
+        while (m.find()) {
+            words.add(DAYS_PREFIX + Integer.parseInt(m.group(1) != null ? m.group(1) : m.group(2)));
+            rest.append(query, last, m.start()).append(' ');
+            last = m.end();
+        }
+        rest.append(query.substring(last));
+        List<String> plain = tokens(rest.toString());
+        boolean prefixLast = !plain.isEmpty() && !query.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1))
+            && last < query.length();
+        words.addAll(new LinkedHashSet<>(plain));
+        if (words.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = byPath.size();
+            if (liveDocs == 0) return List.of();
+            double averageLength = (double) liveLength / liveDocs;
+            float[] scores = new float[docs.size()];
+            int[] matched = new int[docs.size()];
+            int[] lastWord = new int[docs.size()]; // 1-based index of the last query word that hit each doc
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            for (int w = 0; w < words.size(); w++) {
+                String word = words.get(w);
+                Map<String, Postings> lists;
+                if (prefixLast && w == words.size() - 1 && !word.startsWith(DAYS_PREFIX)) {
+                    lists = prefixTerms(word);
+                } else {
+                    Postings p = terms.get(word);
+                    lists = p == null ? Map.of() : Map.of(word, p);
+                }
+                for (Postings p : lists.values()) {
+                    double idf = Math.log(1 + (liveDocs - p.count + 0.5) / (p.count + 0.5));
+                    int[] cursor = {0, -1};
+                    for (int i = 0; i < p.count; i++) {
+                        int doc = nextDoc(p.bytes, cursor);
+                        int frequency = nextVarint(p.bytes, cursor);
+                        if (dead.get(doc)) continue;
+                        if (lastWord[doc] == 0) {
+                            if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                            touched[touchedCount++] = doc;
+                        }
+                        // A doc counts each query word once, even if several prefix expansions hit it
+                        if (lastWord[doc] != w + 1) {
+                            lastWord[doc] = w + 1;
+                            matched[doc]++;
+                        }
+                        double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                        scores[doc] += (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+                    }
+                }
+            }
+            // Min-heap of the best `limit` so far; most docs lose to its head without being boxed
+            Comparator<Integer> rank = (a, b) -> matched[a] != matched[b] ? Integer.compare(matched[a], matched[b])
+                : Float.compare(scores[a], scores[b]);
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, rank);
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (best.size() < limit) {
+                    best.add(doc);
+                } else if (rank.compare(doc, best.peek()) > 0) {
+                    best.poll();
+                    best.add(doc);
+                }
+            }
+            Hit[] hits = new Hit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int id = best.poll();
+                Doc doc = docs.get(id);
+                hits[i] = new Hit(doc.path(), doc.destination(), doc.days(), doc.transportMode(), scores[id]);
+            }
+            return List.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to MAX_PREFIX_TERMS terms starting with prefix, most frequent first
+    private Map<String, Postings> prefixTerms(String prefix) {
+        SortedMap<String, Postings> range = terms.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (range.size() <= MAX_PREFIX_TERMS) return range;
+        List<Map.Entry<String, Postings>> entries = new ArrayList<>(range.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue().count, a.getValue().count));
+        Map<String, Postings> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Postings> e : entries.subList(0, MAX_PREFIX_TERMS)) top.put(e.getKey(), e.getValue());
+        return top;
+    }
+
+    /**
+     * Brings the given files up to date: re-reads changed ones and drops missing ones. A path
+     * that is gone and is not an itinerary file may have been a directory, so every indexed
+     * file under it is dropped too.
+     */
+    public void refresh(Iterable<Path> paths) {
+        List<Path> changed = new ArrayList<>();
+        List<Path> gone = new ArrayList<>();
+        List<Path> goneDirs = new ArrayList<>();
+        for (Path raw : paths) {
+            Path path = raw.toAbsolutePath().normalize();
+            if (!isIndexable(path)) {
+                if (!Files.exists(path)) goneDirs.add(path);
+                continue;
+            }
+            if (Files.isRegularFile(path)) {
+                changed.add(path);
+            } else {
+                gone.add(path);
+            }
+        }
+        List<Parsed> parsed = new ArrayList<>();
+        for (Path path : changed) {
+            if (unchanged(path)) continue;
+            Parsed p = read(path);
+            if (p != null) {
+                parsed.add(p);
+            } else {
+                gone.add(path);
+            }
+        }
+        if (parsed.isEmpty() && gone.isEmpty() && goneDirs.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            if (!goneDirs.isEmpty()) {
+                // One pass per batch, not per path; deleted temp files from saves land here as well
+                for (Path path : byPath.keySet()) {
+                    for (Path dir : goneDirs) {
+                        if (path.startsWith(dir)) {
+                            gone.add(path);
+                            break;
+                        }
+                    }
+                }
+            }
+            for (Path path : gone) {
+                Integer id = byPath.remove(path);
+                if (id != null) kill(id);
+            }
+            for (Parsed p : parsed) put(p);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Re-walks the whole directory; used after the watcher lost events. */
+    public void rescan() throws IOException {
+        Set<Path> all = new HashSet<>(listFiles());
+        lock.readLock().lock();
+        try {
+            all.addAll(byPath.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        refresh(all);
+    }
+
+    private boolean unchanged(Path path) {
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            Integer id = byPath.get(path);
+            return id != null && docs.get(id).modified() == modified;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a daemon thread that keeps the index in step with the directory. Events are
+     * gathered until the directory has been quiet for {@value #SETTLE_MILLIS} ms, then applied
+     * as one batch, after which {@code onChange} runs on the watcher thread.
+     */
+    public synchronized void watch(Runnable onChange) throws IOException {
+        if (watcher != null) return;
+        watcher = FileSystems.getDefault().newWatchService();
+        Map<WatchKey, Path> dirs = new HashMap<>();
+        register(root, dirs);
+        WatchService service = watcher;
+        watchThread = new Thread(() -> watchLoop(service, dirs, onChange), "search-index-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void register(Path dir, Map<WatchKey, Path> dirs) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path d : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                WatchKey key = d.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                dirs.put(key, d);
+            }
+        }
+    }
+
+    private void watchLoop(WatchService service, Map<WatchKey, Path> dirs, Runnable onChange) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Set<Path> pending = new HashSet<>();
+                boolean overflow = false;
+                while (key != null) {
+                    overflow |= collect(key, dirs, pending);
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    if (overflow) {
+                        rescan();
+                    } else {
+                        refresh(pending);
+                    }
+                } catch (IOException | UncheckedIOException e) {
+                    System.err.println("search: cannot update index: " + e.getMessage());
+                }
+                if (onChange != null) onChange.run();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    // True when events were lost and the directory must be rescanned
+    private boolean collect(WatchKey key, Map<WatchKey, Path> dirs, Set<Path> pending) {
+        Path dir = dirs.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path, dirs);
+                    try (Stream<Path> walk = Files.walk(path)) {
+                        walk.filter(ItinerarySearch::isIndexable).forEach(pending::add);
+                    }
+                } catch (NoSuchFileException vanished) {
+                    // created and removed again before we looked
+                } catch (IOException | UncheckedIOException e) {
+                    overflow = true;
+                }
+            } else {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && dirs.containsValue(path)) {
+                    // A watched directory was deleted or moved away; stop following it and below
+                    var it = dirs.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<WatchKey, Path> e = it.next();
+                        if (e.getValue().startsWith(path)) {
+                            e.getKey().cancel();
+                            it.remove();
+                        }
+                    }
+                }
+                pending.add(path);
+            }
+        }
+        if (!key.reset()) dirs.remove(key);
+        return overflow;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watchThread.interrupt();
+            watcher = null;
+        }
+    }
+
+    static int putVarint(byte[] bytes, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+
+    // cursor = {byte position, previous doc id}
+    private static int nextDoc(byte[] bytes, int[] cursor) {
+        return cursor[1] += nextVarint(bytes, cursor);
+    }
+
+    private static int nextVarint(byte[] bytes, int[] cursor) {
+        int pos = cursor[0], value = 0, shift = 0;
+        byte b;
+        do {
+            b = bytes[pos++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        cursor[0] = pos;
+        return value;
+    }
+}
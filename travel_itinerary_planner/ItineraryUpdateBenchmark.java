@@ -0,0 +1,80 @@
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * Toggling one category on an itinerary shown in a line-wrapped text area: the full path
+ * ({@code setText} with the regenerated text) against {@link ItineraryDocument#update} of every
+ * day and of only the days on screen, each followed by the text area's relayout. Generation is
+ * measured separately, since every path needs it. Runs headless on the EDT.
+ */
+public class ItineraryUpdateBenchmark {
+    private static final int VISIBLE_DAYS = 12;
+
+    public static void main(String[] args) throws Exception {
+        ItineraryEngine engine = new ItineraryEngine(ActivityCatalog.bundled(), ForkJoinPool.commonPool());
+        int base = 0b10101, toggled = 0b10111; // Museums, Cafes, Fine Dining; then Parks as well
+        for (int days : new int[] {7, 60, 365}) {
+            ItineraryRequest a = new ItineraryRequest("Paris", days, base, 0b00101, "Car");
+            ItineraryRequest b = new ItineraryRequest("Paris", days, toggled, 0b00101, "Car");
+            Itinerary planA = engine.generate(a), planB = engine.generate(b);
+            Bench.header("Toggle one category, " + days + " days (" + planA.toText().length() + " chars)");
+            Bench.nanosPerOp("generate (both paths)", 20, 200, () -> engine.generate((days & 1) == 0 ? a : b).dayCount());
+            SwingUtilities.invokeAndWait(() -> {
+                JTextArea full = area();
+                Bench.nanosPerOp("setText + relayout", 20, 200, new LongSupplier() {
+                    boolean flip;
+                    public long getAsLong() {
+                        full.setText(((flip = !flip) ? planB : planA).toText());
+                        return full.getPreferredSize().height;
+                    }
+                });
+                JTextArea incremental = area();
+                ItineraryDocument doc = new ItineraryDocument(incremental.getDocument());
+                doc.replace(planA);
+                Bench.nanosPerOp("ItineraryDocument.update + relayout", 20, 200, new LongSupplier() {
+                    boolean flip;
+                    public long getAsLong() {
+                        if (!doc.update((flip = !flip) ? planB : planA)) throw new AssertionError("fell back to replace");
+                        return incremental.getPreferredSize().height;
+                    }
+                });
+                System.out.printf("edits per toggle: %d (%d days); text matches full render: %b%n",
+                    doc.lastEditCount(), days, incremental.getText().equals(doc.itinerary().toText()));
+
+                // What the user waits for: the ~12 days on screen; the rest follow in later EDT slices
+                JTextArea visible = area();
+                ItineraryDocument lazy = new ItineraryDocument(visible.getDocument());
+                lazy.replace(planA);
+                long visibleNanos = 0, catchUpNanos = 0;
+                int rounds = 200;
+                for (int i = 0; i < rounds + 20; i++) {
+                    long t0 = System.nanoTime();
+                    lazy.update(i % 2 == 0 ? planB : planA, 1, VISIBLE_DAYS);
+                    visible.getPreferredSize();
+                    long t1 = System.nanoTime();
+                    lazy.finishPendingEdits();
+                    visible.getPreferredSize();
+                    if (i >= 20) {
+                        visibleNanos += t1 - t0;
+                        catchUpNanos += System.nanoTime() - t1;
+                    }
+                }
+                System.out.printf("%-48s %14.1f ns/op (deferred catch-up %.1f ms in slices)%n", "update, " + VISIBLE_DAYS
+                    + " visible days + relayout", visibleNanos / (double) rounds, catchUpNanos / 1e6 / rounds);
+                lazy.finishPendingEdits();
+                System.out.printf("after catching up, text matches full render: %b%n",
+                    visible.getText().equals(lazy.itinerary().toText()));
+            });
+        }
+    }
+
+    private static JTextArea area() {
+        JTextArea area = new JTextArea();
+        area.setLineWrap(true);
+        area.setWrapStyleWord(true);
+        area.setSize(800, 600);
+        return area;
+    }
+}
@@ -0,0 +1,151 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Read-only, virtualized rendering of an {@link Itinerary}. Only the lines inside the
+ * current clip are generated and drawn, so a 10,000-day plan costs the same to paint
+ * as a 3-day one. Used instead of the text area for very long custom durations.
+ */
+public class ItineraryView extends JComponent implements Scrollable {
+    private Itinerary itinerary;
+    // Line index where each day starts; only built for itineraries with uneven day lengths
+    private int[] dayStartLines;
+    private int linesPerDay;
+    private long totalLines;
+
+    public ItineraryView() {
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setForeground(Color.BLACK);
+    }
+
+    public Itinerary getItinerary() {
+        return itinerary;
+    }
+
+    public void setItinerary(Itinerary itinerary) {
+        this.itinerary = itinerary;
+        dayStartLines = null;
+        if (itinerary == null) {
+            totalLines = 0;
+        } else if (itinerary.activitiesPerDay() >= 0) {
+            linesPerDay = itinerary.dayCount() > 0 ? Itinerary.linesFor(itinerary.day(1)) : 0;
+            totalLines = Itinerary.HEADER_LINES + (long) linesPerDay * itinerary.dayCount();
+        } else {
+            dayStartLines = new int[itinerary.dayCount() + 1];
+            int line = Itinerary.HEADER_LINES;
+            for (int day = 1; day <= itinerary.dayCount(); day++) {
+                dayStartLines[day - 1] = line;
+                line += Itinerary.linesFor(itinerary.day(day));
+            }
+            dayStartLines[itinerary.dayCount()] = line;
+            totalLines = line;
+        }
+        revalidate();
+        repaint();
+    }
+
+    private int lineHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Insets in = getInsets();
+        long height = totalLines * lineHeight() + in.top + in.bottom;
+        return new Dimension(400, (int) Math.min(height, Integer.MAX_VALUE));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (itinerary == null) return;
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(getFont());
+        g2.setColor(getForeground());
+        FontMetrics fm = g2.getFontMetrics();
+        Insets in = getInsets();
+        int lh = fm.getHeight();
+        long first = Math.max(0, (clip.y - in.top) / lh);
+        long last = Math.min(totalLines - 1, (clip.y + clip.height - in.top) / lh);
+
+        DayPlan day = null;
+        for (long line = first; line <= last; line++) {
+            int y = (int) (in.top + line * lh + fm.getAscent());
+            if (line < Itinerary.HEADER_LINES) {
+                g2.drawString(headerLine((int) line), in.left + 2, y);
+                continue;
+            }
+            int dayNumber = dayAt(line);
+            if (day == null || day.number() != dayNumber) day = itinerary.day(dayNumber);
+            g2.drawString(dayLine(day, (int) (line - startOf(dayNumber))), in.left + 2, y);
+        }
+    }
+
+    private String headerLine(int line) {
+        return switch (line) {
+            case 1 -> "Itinerary for " + itinerary.destination() + " (" + itinerary.dayCount() + " day(s))";
+            case 2 -> "Mode of Transportation: " + itinerary.transportMode();
+            case 3 -> "------------------------------";
+            default -> "";
+        };
+    }
+
+    private static String dayLine(DayPlan day, int offset) {
+        int activities = day.activities().size();
+        if (offset == 0) return "Day " + day.number() + ":";
+        if (offset <= activities) return "  - " + day.activities().get(offset - 1);
+        if (offset == activities + 1) return "  - Evening: " + day.evening();
+        if (offset == activities + 2 && day.hasTravel()) return Itinerary.travelLine(day);
+        return "";
+    }
+
+    private int dayAt(long line) {
+        if (dayStartLines == null) {
+            return (int) ((line - Itinerary.HEADER_LINES) / linesPerDay) + 1;
+        }
+        int lo = 0, hi = itinerary.dayCount() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (dayStartLines[mid] <= line) lo = mid; else hi = mid - 1;
+        }
+        return lo + 1;
+    }
+
+    private long startOf(int dayNumber) {
+        if (dayStartLines == null) {
+            return Itinerary.HEADER_LINES + (long) (dayNumber - 1) * linesPerDay;
+        }
+        return dayStartLines[dayNumber - 1];
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight() : 10;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - lineHeight() : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
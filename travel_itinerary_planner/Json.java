@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/** The little JSON this app speaks: string quoting for responses and reading a string array back. */
+final class Json {
+    private Json() {}
+
+    static String quote(String s) {
+        StringBuilder out = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    static String stringArray(List<String> values) {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) out.append(',');
+            out.append(quote(values.get(i)));
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * Strings of the array stored under {@code key} in a JSON object, or of the document
+     * itself when it is a top-level array. Only the array has to be strings; other values
+     * in the object are skipped unread. Throws {@link IllegalArgumentException} when malformed.
+     */
+    static List<String> readStringArray(String json, String key) {
+        int pos = skipSpace(json, 0);
+        if (pos < json.length() && json.charAt(pos) != '[') {
+            String needle = quote(key);
+            int at = json.indexOf(needle);
+            if (at < 0) throw new IllegalArgumentException("missing \"" + key + "\"");
+            pos = skipSpace(json, at + needle.length());
+            if (pos >= json.length() || json.charAt(pos) != ':') throw new IllegalArgumentException("expected ':' after \"" + key + "\"");
+            pos = skipSpace(json, pos + 1);
+        }
+        if (pos >= json.length() || json.charAt(pos) != '[') throw new IllegalArgumentException("expected a JSON array");
+        List<String> values = new ArrayList<>();
+        pos = skipSpace(json, pos + 1);
+        if (pos < json.length() && json.charAt(pos) == ']') return values;
+        while (true) {
+            if (pos >= json.length() || json.charAt(pos) != '"') throw new IllegalArgumentException("expected a string at " + pos);
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (true) {
+                if (pos >= json.length()) throw new IllegalArgumentException("unterminated string");
+                char c = json.charAt(pos++);
+                if (c == '"') break;
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) throw new IllegalArgumentException("unterminated escape");
+                char e = json.charAt(pos++);
+                switch (e) {
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) throw new IllegalArgumentException("bad \\u escape");
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("bad \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> value.append(e); // \" \\ \/
+                }
+            }
+            values.add(value.toString());
+            pos = skipSpace(json, pos);
+            if (pos < json.length() && json.charAt(pos) == ',') {
+                pos = skipSpace(json, pos + 1);
+            } else if (pos < json.length() && json.charAt(pos) == ']') {
+                return values;
+            } else {
+                throw new IllegalArgumentException("expected ',' or ']' at " + pos);
+            }
+        }
+    }
+
+    private static int skipSpace(String s, int pos) {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        return pos;
+    }
+}
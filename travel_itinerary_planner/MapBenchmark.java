@@ -0,0 +1,139 @@
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Offline map costs, headless: reading a tile from a tile directory against the memory-mapped
+ * packed file, decoding one, and rendering 1280x800 pan frames with 300 markers once the
+ * tiles are cached (the 60 fps budget is 16.7 ms). Tiles are generated into a temp directory.
+ */
+public class MapBenchmark {
+    private static final int ZOOM = 12, SPAN = 16;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("tiles");
+        Path packed = dir.resolveSibling(dir.getFileName() + TileStore.PACKED_EXTENSION);
+        try {
+            // Paris at zoom 12 is around tile (2074, 1409)
+            int baseX = 2074 - SPAN / 2, baseY = 1409 - SPAN / 2;
+            byte[][] encoded = new byte[4][];
+            for (int i = 0; i < encoded.length; i++) encoded[i] = sampleTile(i);
+            for (int x = 0; x < SPAN; x++) {
+                Path column = Files.createDirectories(dir.resolve(Integer.toString(ZOOM)).resolve(Integer.toString(baseX + x)));
+                for (int y = 0; y < SPAN; y++) Files.write(column.resolve((baseY + y) + ".png"), encoded[(x + y) & 3]);
+            }
+            System.out.println("packed " + TileStore.pack(dir, packed) + " tiles, " + Files.size(packed) / 1024 + " KB");
+
+            Bench.header("Tile store reads (" + SPAN * SPAN + " tiles)");
+            try (TileStore directory = TileStore.open(dir); TileStore mapped = TileStore.open(packed)) {
+                for (TileStore store : new TileStore[] {directory, mapped}) {
+                    Random random = new Random(1);
+                    Bench.nanosPerOp(store instanceof TileStore.Packed ? "packed file (mmap)" : "tile directory", 2_000, 20_000, () -> {
+                        try {
+                            return store.read(ZOOM, baseX + random.nextInt(SPAN), baseY + random.nextInt(SPAN)).length;
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                }
+                Bench.nanosPerOp("decode 256x256 PNG", 50, 500, () -> {
+                    try {
+                        return MapPanel.decode(encoded[1]).getWidth();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+                Bench.header("Pan frames, 1280x800, 300 markers");
+                MapPanel[] holder = new MapPanel[1];
+                SwingUtilities.invokeAndWait(() -> {
+                    MapPanel map = new MapPanel(mapped);
+                    map.setSize(1280, 800);
+                    Random random = new Random(3);
+                    List<MapPanel.Marker> markers = new ArrayList<>();
+                    for (int i = 0; i < 300; i++) {
+                        markers.add(new MapPanel.Marker(48.80 + random.nextDouble() * 0.12, 2.25 + random.nextDouble() * 0.2,
+                            "stop " + i, i / 10));
+                    }
+                    map.setMarkers(markers);
+                    map.centerOn(48.8566, 2.3522, ZOOM);
+                    holder[0] = map;
+                });
+                MapPanel map = holder[0];
+                BufferedImage frame = new BufferedImage(1280, 800, BufferedImage.TYPE_INT_RGB);
+                // Cold frame queues the visible tiles and the prefetch ring; wait for them to land
+                long cold = System.nanoTime();
+                paint(map, frame);
+                boolean[] loading = {true};
+                while (loading[0]) {
+                    Thread.sleep(5);
+                    SwingUtilities.invokeAndWait(() -> loading[0] = map.isLoading());
+                }
+                System.out.printf("cold viewport + prefetch loaded in %.1f ms%n", (System.nanoTime() - cold) / 1e6);
+
+                int frames = 600;
+                long[] nanos = new long[frames];
+                for (int i = 0; i < frames; i++) {
+                    int step = i;
+                    long start = System.nanoTime();
+                    SwingUtilities.invokeAndWait(() -> {
+                        // Sweep back and forth inside the cached area, 6 px per frame
+                        map.panBy((step / 50) % 2 == 0 ? 6 : -6, (step / 75) % 2 == 0 ? 3 : -3);
+                        Graphics2D g = frame.createGraphics();
+                        map.paint(g);
+                        g.dispose();
+                    });
+                    nanos[i] = System.nanoTime() - start;
+                }
+                long[] sorted = nanos.clone();
+                Arrays.sort(sorted);
+                System.out.printf("pan frame: p50 %.2f ms, p99 %.2f ms, max %.2f ms (60 fps budget 16.7 ms)%n",
+                    sorted[frames / 2] / 1e6, sorted[frames * 99 / 100] / 1e6, sorted[frames - 1] / 1e6);
+                SwingUtilities.invokeAndWait(() -> System.out.println(map.cacheStats()));
+            }
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+            Files.deleteIfExists(packed);
+        }
+    }
+
+    private static void paint(MapPanel map, BufferedImage frame) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            Graphics2D g = frame.createGraphics();
+            map.paint(g);
+            g.dispose();
+        });
+    }
+
+    /** A noisy 256x256 tile so PNG sizes and decode times resemble real map tiles. */
+    private static byte[] sampleTile(int seed) throws IOException {
+        BufferedImage tile = new BufferedImage(MapPanel.TILE, MapPanel.TILE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = tile.createGraphics();
+        Random random = new Random(seed);
+        g.setColor(new Color(0xF2EFE9));
+        g.fillRect(0, 0, MapPanel.TILE, MapPanel.TILE);
+        for (int i = 0; i < 60; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.drawLine(random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            g.fillRect(random.nextInt(256), random.nextInt(256), 4 + random.nextInt(20), 4 + random.nextInt(20));
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(tile, "png", out);
+        return out.toByteArray();
+    }
+}
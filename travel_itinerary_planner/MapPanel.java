@@ -0,0 +1,405 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline slippy map with itinerary stop markers, drawn from a {@link TileStore} in the Web
+ * Mercator z/x/y scheme. Without a store the markers are drawn on a plain grid.
+ *
+ * <p>Decoded tiles live in an LRU of screen-compatible images, so a pan frame is only blits.
+ * Tiles that are not cached are read and decoded on a background executor together with a
+ * one-tile ring around the viewport, and painted when they arrive; work for tiles that have
+ * scrolled out of range by the time it runs is dropped. The cache and the pending set are only
+ * touched on the EDT. Markers are projected once per zoom level and drawn from small
+ * pre-rendered sprites, so a few hundred of them cost well under a millisecond per frame;
+ * like the tiles, they repeat every world width horizontally.
+ */
+public class MapPanel extends JComponent {
+    public static final int TILE = 256;
+    public static final int MIN_ZOOM = 1, MAX_ZOOM = 18;
+    private static final int DEFAULT_CACHE_TILES = 192; // 48 MB of 32-bit pixels
+    private static final int PREFETCH_RING = 1;
+    private static final int MARKER_SIZE = 12;
+    private static final int PAN_STEP = 64;
+    private static final Color BACKGROUND = new Color(0xE8E4DC);
+    private static final Color GRID = new Color(0xD6D1C6);
+    private static final Color[] DAY_COLORS = {
+        new Color(0xE53935), new Color(0x1E88E5), new Color(0x43A047), new Color(0xFB8C00),
+        new Color(0x8E24AA), new Color(0x00897B), new Color(0x6D4C41)
+    };
+    // Cached for tiles the store does not have, so they are not asked for again
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+    private static final ExecutorService LOADER = loader();
+
+    /** A stop on the map; {@code group} picks the colour, e.g. the day it is first visited. */
+    public record Marker(double latitude, double longitude, String label, int group) {}
+
+    private final TileStore store;
+    private final Map<Long, BufferedImage> tiles;
+    private final Set<Long> pending = new HashSet<>();
+    // zoom, x0, y0, x1, y1 of the tiles worth loading; read by loader threads
+    private volatile int[] wanted = {-1, 0, 0, -1, -1};
+    private int zoom = 12;
+    private double centerX, centerY; // world pixels at the current zoom
+    private List<Marker> markers = List.of();
+    // World pixels at markerZoom; double because the world is 2^26 pixels wide at MAX_ZOOM
+    private double[] markerX = new double[0], markerY = new double[0];
+    private int markerZoom = -1;
+    private final BufferedImage[] sprites = new BufferedImage[DAY_COLORS.length];
+    private long hits, misses, loads, evictions;
+
+    public MapPanel(TileStore store) {
+        this(store, DEFAULT_CACHE_TILES);
+    }
+
+    public MapPanel(TileStore store, int cacheTiles) {
+        this.store = store;
+        this.tiles = new LinkedHashMap<>(cacheTiles * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                boolean evict = size() > cacheTiles;
+                if (evict) evictions++;
+                return evict;
+            }
+        };
+        setOpaque(true);
+        setFocusable(true);
+        setPreferredSize(new Dimension(900, 600));
+        setToolTipText(""); // registers with the tooltip manager; text comes from getToolTipText(MouseEvent)
+        centerOn(0, 0, MIN_ZOOM);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = e.getPoint();
+                requestFocusInWindow();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (last == null) return;
+                panBy(last.x - e.getX(), last.y - e.getY());
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) zoomAt(zoom + 1, e.getPoint());
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(zoom - e.getWheelRotation(), e.getPoint());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+
+        bindKey(KeyEvent.VK_LEFT, () -> panBy(-PAN_STEP, 0));
+        bindKey(KeyEvent.VK_RIGHT, () -> panBy(PAN_STEP, 0));
+        bindKey(KeyEvent.VK_UP, () -> panBy(0, -PAN_STEP));
+        bindKey(KeyEvent.VK_DOWN, () -> panBy(0, PAN_STEP));
+        bindKey(KeyEvent.VK_EQUALS, () -> zoomAt(zoom + 1, null));
+        bindKey(KeyEvent.VK_ADD, () -> zoomAt(zoom + 1, null));
+        bindKey(KeyEvent.VK_MINUS, () -> zoomAt(zoom - 1, null));
+        bindKey(KeyEvent.VK_SUBTRACT, () -> zoomAt(zoom - 1, null));
+    }
+
+    private static ExecutorService loader() {
+        int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "map-tiles");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private void bindKey(int keyCode, Runnable action) {
+        String name = "map-" + keyCode;
+        getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    static double worldX(double longitude, int zoom) {
+        return (longitude + 180) / 360 * ((double) TILE * (1 << zoom));
+    }
+
+    static double worldY(double latitude, int zoom) {
+        double lat = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude)));
+        return (1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * ((double) TILE * (1 << zoom));
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public void centerOn(double latitude, double longitude, int zoom) {
+        this.zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        centerX = worldX(longitude, this.zoom);
+        centerY = worldY(latitude, this.zoom);
+        repaint();
+    }
+
+    public void setMarkers(List<Marker> markers) {
+        this.markers = List.copyOf(markers);
+        markerZoom = -1;
+        repaint();
+    }
+
+    /** Centres on the markers at the closest zoom that shows them all; does nothing without markers. */
+    public void fitMarkers() {
+        if (markers.isEmpty()) return;
+        int width = getWidth() > 0 ? getWidth() : getPreferredSize().width;
+        int height = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Marker m : markers) {
+            minX = Math.min(minX, worldX(m.longitude(), 0));
+            maxX = Math.max(maxX, worldX(m.longitude(), 0));
+            minY = Math.min(minY, worldY(m.latitude(), 0));
+            maxY = Math.max(maxY, worldY(m.latitude(), 0));
+        }
+        int fit = MIN_ZOOM;
+        for (int z = MAX_ZOOM - 2; z >= MIN_ZOOM; z--) {
+            double scale = 1 << z;
+            if ((maxX - minX) * scale <= width - 4 * MARKER_SIZE && (maxY - minY) * scale <= height - 4 * MARKER_SIZE) {
+                fit = z;
+                break;
+            }
+        }
+        zoom = fit;
+        centerX = (minX + maxX) / 2 * (1 << fit);
+        centerY = (minY + maxY) / 2 * (1 << fit);
+        repaint();
+    }
+
+    public void panBy(double dx, double dy) {
+        centerX += dx;
+        centerY = Math.max(0, Math.min((double) TILE * (1 << zoom), centerY + dy));
+        repaint();
+    }
+
+    /** Zooms keeping the world point under {@code anchor} (the centre when null) in place. */
+    public void zoomAt(int newZoom, Point anchor) {
+        newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom == zoom) return;
+        double ax = anchor == null ? 0 : anchor.x - getWidth() / 2.0;
+        double ay = anchor == null ? 0 : anchor.y - getHeight() / 2.0;
+        double scale = Math.pow(2, newZoom - zoom);
+        centerX = (centerX + ax) * scale - ax;
+        centerY = (centerY + ay) * scale - ay;
+        zoom = newZoom;
+        repaint();
+    }
+
+    /** Cache size and hit, miss, load and eviction counts since the panel was created. */
+    public String cacheStats() {
+        return String.format("tiles cached %d, hits %d, misses %d, loaded %d, evicted %d, loading %d",
+            tiles.size(), hits, misses, loads, evictions, pending.size());
+    }
+
+    /** True while tile reads requested by earlier paints are still outstanding. */
+    public boolean isLoading() {
+        return !pending.isEmpty();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth(), height = getHeight();
+        int originX = (int) Math.floor(centerX - width / 2.0);
+        int originY = (int) Math.floor(centerY - height / 2.0);
+        int x0 = Math.floorDiv(originX, TILE), y0 = Math.floorDiv(originY, TILE);
+        int x1 = Math.floorDiv(originX + width - 1, TILE), y1 = Math.floorDiv(originY + height - 1, TILE);
+        int n = 1 << zoom;
+        wanted = new int[] {zoom, x0 - PREFETCH_RING, y0 - PREFETCH_RING, x1 + PREFETCH_RING, y1 + PREFETCH_RING};
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, width, height);
+        g.setColor(BACKGROUND);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        for (int ty = Math.max(0, y0); ty <= Math.min(n - 1, y1); ty++) {
+            for (int tx = x0; tx <= x1; tx++) {
+                int sx = tx * TILE - originX, sy = ty * TILE - originY;
+                if (sx >= clip.x + clip.width || sy >= clip.y + clip.height || sx + TILE <= clip.x || sy + TILE <= clip.y) continue;
+                BufferedImage tile = store == null ? null : tile(zoom, Math.floorMod(tx, n), ty);
+                if (tile != null && tile != MISSING) {
+                    g.drawImage(tile, sx, sy, null);
+                } else {
+                    g.setColor(GRID);
+                    g.drawRect(sx, sy, TILE, TILE);
+                }
+            }
+        }
+        if (store != null) prefetch(x0, y0, x1, y1, n);
+        paintMarkers((Graphics2D) g, originX, originY, clip);
+    }
+
+    private BufferedImage tile(int z, int x, int y) {
+        BufferedImage tile = tiles.get(TileStore.key(z, x, y));
+        if (tile != null) {
+            hits++;
+        } else {
+            misses++;
+            request(z, x, y);
+        }
+        return tile;
+    }
+
+    private void prefetch(int x0, int y0, int x1, int y1, int n) {
+        for (int ty = y0 - PREFETCH_RING; ty <= y1 + PREFETCH_RING; ty++) {
+            if (ty < 0 || ty >= n) continue;
+            for (int tx = x0 - PREFETCH_RING; tx <= x1 + PREFETCH_RING; tx++) {
+                boolean inside = ty >= y0 && ty <= y1 && tx >= x0 && tx <= x1;
+                if (!inside && !tiles.containsKey(TileStore.key(zoom, Math.floorMod(tx, n), ty))) {
+                    request(zoom, Math.floorMod(tx, n), ty);
+                }
+            }
+        }
+    }
+
+    private void request(int z, int x, int y) {
+        long key = TileStore.key(z, x, y);
+        if (!pending.add(key)) return;
+        LOADER.execute(() -> {
+            BufferedImage image = null;
+            if (isWanted(z, x, y)) {
+                try {
+                    byte[] bytes = store.read(z, x, y);
+                    image = bytes == null ? MISSING : decode(bytes);
+                } catch (IOException | RuntimeException e) {
+                    image = MISSING;
+                }
+            }
+            BufferedImage loaded = image;
+            SwingUtilities.invokeLater(() -> tileLoaded(key, z, loaded));
+        });
+    }
+
+    private boolean isWanted(int z, int x, int y) {
+        int[] w = wanted;
+        if (w[0] != z || y < w[2] || y > w[4]) return false;
+        int n = 1 << z, span = w[3] - w[1];
+        return span + 1 >= n || Math.floorMod(x - w[1], n) <= span;
+    }
+
+    private void tileLoaded(long key, int z, BufferedImage image) {
+        pending.remove(key);
+        if (image == null) return; // scrolled away before it was read
+        tiles.put(key, image);
+        loads++;
+        if (z == zoom) repaint();
+    }
+
+    /** Decodes into the screen's pixel layout so every later draw is a plain blit. */
+    static BufferedImage decode(byte[] bytes) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (decoded == null) return MISSING;
+        BufferedImage image;
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(decoded.getWidth(), decoded.getHeight(),
+                decoded.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB_PRE : BufferedImage.TYPE_INT_RGB);
+        } else {
+            image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(decoded.getWidth(), decoded.getHeight(), decoded.getTransparency());
+        }
+        Graphics2D g = image.createGraphics();
+        g.drawImage(decoded, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+
+    private void projectMarkers() {
+        if (markerZoom == zoom && markerX.length == markers.size()) return;
+        markerX = new double[markers.size()];
+        markerY = new double[markers.size()];
+        for (int i = 0; i < markerX.length; i++) {
+            markerX[i] = worldX(markers.get(i).longitude(), zoom);
+            markerY[i] = worldY(markers.get(i).latitude(), zoom);
+        }
+        markerZoom = zoom;
+    }
+
+    private void paintMarkers(Graphics2D g, int originX, int originY, Rectangle clip) {
+        if (markers.isEmpty()) return;
+        projectMarkers();
+        int half = MARKER_SIZE / 2;
+        double world = (double) TILE * (1 << zoom);
+        double left = clip.x - MARKER_SIZE;
+        for (int i = 0; i < markerX.length; i++) {
+            int sy = (int) Math.floor(markerY[i] - originY) - half;
+            if (sy >= clip.y + clip.height || sy + MARKER_SIZE <= clip.y) continue;
+            // Leftmost copy that can still reach the clip, then one per world width across it
+            double x = markerX[i] - originX - half;
+            x -= Math.floor((x - left) / world) * world;
+            for (; x < clip.x + clip.width; x += world) {
+                g.drawImage(sprite(markers.get(i).group()), (int) Math.floor(x), sy, null);
+            }
+        }
+    }
+
+    private BufferedImage sprite(int group) {
+        int index = Math.floorMod(group, DAY_COLORS.length);
+        BufferedImage sprite = sprites[index];
+        if (sprite == null) {
+            sprite = new BufferedImage(MARKER_SIZE, MARKER_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = sprite.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(DAY_COLORS[index]);
+            g.fillOval(1, 1, MARKER_SIZE - 2, MARKER_SIZE - 2);
+            g.setColor(Color.WHITE);
+            g.setStroke(new BasicStroke(1.5f));
+            g.drawOval(1, 1, MARKER_SIZE - 3, MARKER_SIZE - 3);
+            g.dispose();
+            sprites[index] = sprite;
+        }
+        return sprite;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        if (markers.isEmpty()) return null;
+        projectMarkers();
+        double originX = Math.floor(centerX - getWidth() / 2.0), originY = Math.floor(centerY - getHeight() / 2.0);
+        double world = (double) TILE * (1 << zoom);
+        int best = -1;
+        double bestDistance = MARKER_SIZE * MARKER_SIZE;
+        for (int i = 0; i < markerX.length; i++) {
+            double dx = markerX[i] - originX - e.getX(), dy = markerY[i] - originY - e.getY();
+            dx -= Math.rint(dx / world) * world; // nearest wrapped copy
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best < 0 ? null : markers.get(best).label();
+    }
+}
@@ -0,0 +1,52 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Per-repaint cost of the window background and a styled button: filling the gradient and
+ * anti-aliasing the round rect every time (the old paintComponent bodies) against blitting
+ * the RenderCache images. Draws into an offscreen 1200x800 frame buffer, so it runs headless;
+ * on a display the gradient comes from a VolatileImage and the blit is usually cheaper still.
+ */
+public class PaintBenchmark {
+    public static void main(String[] args) {
+        int width = 1200, height = 800;
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        Color top = new Color(245, 245, 250);
+
+        JPanel panel = new JPanel();
+        panel.setSize(width, height);
+        RenderCache.Gradient gradient = new RenderCache.Gradient(top, new Color(200, 220, 255));
+        JButton button = new JButton("Generate Itinerary");
+        button.setSize(190, 40);
+        button.setBackground(new Color(30, 144, 255));
+        RenderCache.RoundedBackground rounded = new RenderCache.RoundedBackground(20);
+
+        Bench.header("Repaint, " + width + "x" + height + " background and one button");
+        Bench.nanosPerOp("gradient, new GradientPaint + fill", 200, 2_000, () -> {
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setPaint(new GradientPaint(0, 0, top, 0, height, new Color(200, 220, 255)));
+            g.fillRect(0, 0, width, height);
+            return frame.getRGB(0, height - 1);
+        });
+        Bench.nanosPerOp("gradient, cached image blit", 200, 2_000, () -> {
+            gradient.paint(g, panel);
+            return frame.getRGB(0, height - 1);
+        });
+        Bench.nanosPerOp("button, anti-aliased fillRoundRect", 10_000, 100_000, () -> {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(button.getBackground());
+            g2.fillRoundRect(0, 0, button.getWidth(), button.getHeight(), 20, 20);
+            g2.dispose();
+            return frame.getRGB(5, 5);
+        });
+        Bench.nanosPerOp("button, cached background blit", 10_000, 100_000, () -> {
+            rounded.paint(g, button);
+            return frame.getRGB(5, 5);
+        });
+        System.out.println("cache renders: " + RenderCache.renders());
+        g.dispose();
+    }
+}
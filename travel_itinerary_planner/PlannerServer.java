@@ -0,0 +1,367 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless JSON API over the same engines the Swing UI uses, on the JDK's built-in HTTP server.
+ *
+ * <pre>
+ * GET /itinerary?destination=Goa&amp;days=3&amp;transport=Car&amp;attractions=Museums,Parks&amp;interests=Food
+ * GET /budget?source=Delhi&amp;destination=Goa&amp;days=3&amp;transport=Car[&amp;attractions=..&amp;interests=..]
+ * GET /tips?destination=Goa[&amp;attractions=..&amp;interests=..&amp;transport=..&amp;k=3]
+ * GET /health, GET /metrics (plain-text {@link ActionMetrics} report)
+ * </pre>
+ *
+ * POST with an {@code application/x-www-form-urlencoded} body takes the same parameters.
+ *
+ * <p>Admission is bounded: a semaphore caps requests in flight (running plus queued), and a
+ * request over the cap is answered {@code 503} with {@code Retry-After} straight from the
+ * dispatcher thread, so overload sheds work instead of growing queues. On JDK 21+ handlers
+ * run on virtual threads; on older JDKs they run on a fixed pool of platform threads with a
+ * bounded queue.
+ */
+public final class PlannerServer {
+    public static final int DEFAULT_PORT = 8080;
+    static final int MAX_DAYS = 366;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    // Set while a worker runs an admitted exchange; unset on the dispatcher's rejection path
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final Semaphore admission;
+    private final int maxInFlight;
+    private final boolean virtualThreads;
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final ItineraryEngine itineraryEngine = new ItineraryEngine();
+    private final TipEngine tipEngine = new TipEngine();
+    private final ActionMetrics metrics = ActionMetrics.get();
+
+    /**
+     * @param workerThreads platform threads when virtual threads are unavailable
+     * @param maxInFlight   requests running or queued before new ones get 503
+     */
+    public PlannerServer(int port, int workerThreads, int maxInFlight) throws IOException {
+        this.maxInFlight = maxInFlight;
+        this.admission = new Semaphore(maxInFlight);
+        ExecutorService virtual = virtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.workers = virtual != null ? virtual : new ThreadPoolExecutor(workerThreads, workerThreads,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxInFlight), daemonThreads());
+        this.server = HttpServer.create(new InetSocketAddress(port), maxInFlight);
+        server.createContext("/itinerary", exchange -> handle(exchange, "/itinerary", this::itinerary));
+        server.createContext("/budget", exchange -> handle(exchange, "/budget", this::budget));
+        server.createContext("/tips", exchange -> handle(exchange, "/tips", this::tips));
+        server.createContext("/health", exchange -> handle(exchange, "/health", params -> health()));
+        server.createContext("/metrics", this::metricsReport);
+        server.createContext("/", exchange -> send(exchange, 404, error("no such endpoint: " + exchange.getRequestURI().getPath())));
+        server.setExecutor(admit());
+    }
+
+    // Reflective so the tree still compiles and runs on JDK 17
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger n = new AtomicInteger();
+        return task -> {
+            Thread t = new Thread(task, "planner-http-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Executor handed to the HTTP server: admits up to maxInFlight exchanges, rejects the rest inline. */
+    private Executor admit() {
+        return task -> {
+            if (!admission.tryAcquire()) {
+                rejected.incrementAndGet();
+                task.run(); // handle() sees no permit and answers 503 without doing the work
+                return;
+            }
+            Runnable admitted = () -> {
+                try {
+                    ADMITTED.set(Boolean.TRUE);
+                    task.run();
+                } finally {
+                    ADMITTED.remove();
+                    admission.release();
+                }
+            };
+            try {
+                workers.execute(admitted);
+            } catch (RuntimeException e) {
+                admission.release();
+                rejected.incrementAndGet();
+                task.run();
+            }
+        };
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int rejectedCount() {
+        return rejected.get();
+    }
+
+    private interface Endpoint {
+        String respond(Map<String, String> params);
+    }
+
+    private void handle(HttpExchange exchange, String name, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            if (ADMITTED.get() == null) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, error("server busy, retry later"));
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                send(exchange, 405, error("use GET or POST"));
+                return;
+            }
+            ActionMetrics.Scope timing = metrics.time("http " + name);
+            try {
+                String body;
+                try {
+                    body = endpoint.respond(params(exchange));
+                } catch (IllegalArgumentException e) {
+                    send(exchange, 400, error(e.getMessage()));
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("server: " + name + " failed: " + e);
+                    send(exchange, 500, error("internal error"));
+                    return;
+                }
+                send(exchange, 200, body);
+            } finally {
+                timing.close();
+            }
+        }
+    }
+
+    private void metricsReport(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] bytes = metrics.getReport().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Query string, plus a form-encoded body for POST; later values win
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        if (exchange.getRequestMethod().equals("POST")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length > MAX_BODY_BYTES) throw new IllegalArgumentException("request body too large");
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String raw, Map<String, String> into) {
+        if (raw == null || raw.isEmpty()) return;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            into.put(key, value);
+        }
+    }
+
+    private String itinerary(Map<String, String> params) {
+        int days = intParam(params, "days", 1, MAX_DAYS, -1);
+        ItineraryRequest request = new ItineraryRequest(required(params, "destination"), days,
+            mask(params.get("attractions"), ItineraryRequest.ATTRACTIONS),
+            mask(params.get("interests"), ItineraryRequest.INTERESTS), transport(params, true));
+        Itinerary itinerary = itineraryEngine.generate(request);
+        StringBuilder json = new StringBuilder(256 + itinerary.dayCount() * 160);
+        json.append("{\"destination\":").append(Json.quote(itinerary.destination()))
+            .append(",\"transportMode\":").append(Json.quote(itinerary.transportMode()))
+            .append(",\"days\":[");
+        for (int d = 1; d <= itinerary.dayCount(); d++) {
+            DayPlan day = itinerary.day(d);
+            if (d > 1) json.append(',');
+            json.append("{\"day\":").append(day.number()).append(",\"activities\":[");
+            for (int i = 0; i < day.activities().size(); i++) {
+                if (i > 0) json.append(',');
+                json.append(Json.quote(day.activities().get(i)));
+            }
+            json.append("],\"evening\":").append(Json.quote(day.evening()));
+            if (day.hasTravel()) json.append(",\"travelKm\":").append(number(day.travelKm()));
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private String budget(Map<String, String> params) {
+        String source = required(params, "source");
+        String destination = required(params, "destination");
+        int days = intParam(params, "days", 1, MAX_DAYS, -1);
+        String mode = transport(params, true);
+        double km = DistanceService.bundled().distanceKm(source, destination);
+        BudgetRules.Estimate estimate = BudgetRules.estimate(km, mode, days,
+            mask(params.get("attractions"), ItineraryRequest.ATTRACTIONS),
+            mask(params.get("interests"), ItineraryRequest.INTERESTS));
+        return "{\"source\":" + Json.quote(source) + ",\"destination\":" + Json.quote(destination)
+            + ",\"days\":" + days + ",\"transportMode\":" + Json.quote(mode)
+            + ",\"distanceKm\":" + number(estimate.distanceKm())
+            + ",\"transport\":" + number(estimate.transport()) + ",\"food\":" + number(estimate.food())
+            + ",\"tickets\":" + number(estimate.tickets()) + ",\"total\":" + number(estimate.total())
+            + ",\"currency\":\"INR\"}";
+    }
+
+    private String tips(Map<String, String> params) {
+        String destination = required(params, "destination");
+        int k = intParam(params, "k", 1, tipEngine.size(), 3);
+        long bits = TipEngine.preferenceBits(mask(params.get("attractions"), ItineraryRequest.ATTRACTIONS),
+            mask(params.get("interests"), ItineraryRequest.INTERESTS), transport(params, false));
+        List<String> tips = tipEngine.recommend(destination, bits, k);
+        return "{\"destination\":" + Json.quote(destination) + ",\"tips\":" + Json.stringArray(tips) + "}";
+    }
+
+    private String health() {
+        return "{\"status\":\"ok\",\"inFlight\":" + (maxInFlight - admission.availablePermits())
+            + ",\"maxInFlight\":" + maxInFlight + ",\"rejected\":" + rejected.get()
+            + ",\"virtualThreads\":" + virtualThreads + "}";
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(name + " is required");
+        return value.trim();
+    }
+
+    private static int intParam(Map<String, String> params, String name, int min, int max, int fallback) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            if (fallback < 0) throw new IllegalArgumentException(name + " is required");
+            return fallback;
+        }
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n < min || n > max) throw new IllegalArgumentException(name + " must be between " + min + " and " + max);
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number: " + value);
+        }
+    }
+
+    // Comma-separated labels, matched case-insensitively; bit i = labels.get(i)
+    static int mask(String csv, List<String> labels) {
+        if (csv == null || csv.isBlank()) return 0;
+        int mask = 0;
+        for (String part : csv.split(",")) {
+            String label = part.trim();
+            if (label.isEmpty()) continue;
+            int index = indexOfIgnoreCase(labels, label);
+            if (index < 0) throw new IllegalArgumentException("unknown option '" + label + "', expected one of " + labels);
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+
+    private static String transport(Map<String, String> params, boolean required) {
+        String value = params.get("transport");
+        if (value == null || value.isBlank()) {
+            if (required) throw new IllegalArgumentException("transport is required");
+            return null;
+        }
+        int index = indexOfIgnoreCase(ItineraryRequest.TRANSPORT_MODES, value.trim());
+        if (index < 0) {
+            throw new IllegalArgumentException("unknown transport '" + value + "', expected one of " + ItineraryRequest.TRANSPORT_MODES);
+        }
+        return ItineraryRequest.TRANSPORT_MODES.get(index);
+    }
+
+    private static int indexOfIgnoreCase(List<String> labels, String label) {
+        for (int i = 0; i < labels.size(); i++) {
+            if (labels.get(i).equalsIgnoreCase(label)) return i;
+        }
+        return -1;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * {@code --port=N} (default 8080), {@code --threads=N} (platform workers, default 2 per core)
+     * and {@code --max-in-flight=N} (default 1024).
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = DEFAULT_PORT;
+        int threads = 2 * Runtime.getRuntime().availableProcessors();
+        int maxInFlight = 1024;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring(7));
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring(10));
+            else if (arg.startsWith("--max-in-flight=")) maxInFlight = Integer.parseInt(arg.substring(16));
+        }
+        PlannerServer server = new PlannerServer(port, threads, maxInFlight);
+        server.start();
+        System.err.printf("Planner server on port %d (%s, max in flight %d)%n", server.port(),
+            server.usesVirtualThreads() ? "virtual threads" : threads + " worker threads", maxInFlight);
+    }
+}
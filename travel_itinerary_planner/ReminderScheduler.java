@@ -0,0 +1,204 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fires reminders from a {@link ReminderStore} when they fall due. Pending reminders sit in a
+ * one-second {@link TimerWheel}, so scheduling is O(1) however many are waiting, and a single
+ * daemon thread sleeps until the wheel's next event instead of polling (while the wheel is
+ * empty it sleeps until something is scheduled). Everything that falls due in the same pass is
+ * marked fired in the store and handed to the listener as one batch on the scheduler thread;
+ * the UI hops to the EDT from there. Reminders that fell due while the app was closed fire
+ * in the first batch after {@link #start}. Deletions go through {@link #delete}, since a
+ * deletion may compact the store and renumber the ids the wheel holds.
+ */
+public final class ReminderScheduler implements Closeable {
+    // Upper bound on a sleep, so wall-clock changes (suspend, DST, manual changes) are noticed
+    private static final long MAX_SLEEP_MILLIS = 60_000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd H:mm");
+    private static final Pattern RELATIVE = Pattern.compile("in\\s+(\\d+)\\s*(minute|min|hour|hr|day|week)s?");
+    private static final Pattern TOMORROW = Pattern.compile("tomorrow(?:\\s+(?:at\\s+)?(\\d{1,2}:\\d{2}))?");
+    private static final Pattern BEFORE = Pattern.compile("(\\d+)\\s*(hour|day|week)s?\\s+before\\s+(\\d{4}-\\d{2}-\\d{2}(?:\\s+\\d{1,2}:\\d{2})?)");
+    private static final LocalTime DEFAULT_TIME = LocalTime.of(9, 0);
+
+    private final ReminderStore store;
+    private final Consumer<List<ReminderStore.Reminder>> onDue;
+    private final LongSupplier clockMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final TimerWheel<ReminderStore.Reminder> wheel;
+    private final Thread thread;
+    private boolean closed;
+
+    ReminderScheduler(ReminderStore store, Consumer<List<ReminderStore.Reminder>> onDue, LongSupplier clockMillis) {
+        this.store = store;
+        this.onDue = onDue;
+        this.clockMillis = clockMillis;
+        this.wheel = new TimerWheel<>(Math.floorDiv(clockMillis.getAsLong(), 1000));
+        this.thread = new Thread(this::run, "reminder-scheduler");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * A scheduler holding the store's pending reminders; nothing fires until {@link #start}.
+     * {@code onDue} runs on the scheduler thread, after the batch has been marked fired.
+     */
+    public static ReminderScheduler load(ReminderStore store, Consumer<List<ReminderStore.Reminder>> onDue) throws IOException {
+        ReminderScheduler scheduler = new ReminderScheduler(store, onDue, System::currentTimeMillis);
+        for (ReminderStore.Reminder reminder : store.pending()) scheduler.schedule(reminder);
+        return scheduler;
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /** Schedules a reminder returned by {@link ReminderStore#append}; reminders without a due time are ignored. */
+    public void schedule(ReminderStore.Reminder reminder) {
+        if (reminder.due() == null || reminder.fired()) return;
+        long tick = reminder.due().atZone(zone).toEpochSecond();
+        synchronized (wheel) {
+            boolean wasEarliest = tick < wheel.nextTick();
+            wheel.schedule(tick, reminder);
+            if (wasEarliest) wheel.notifyAll();
+        }
+    }
+
+    /**
+     * Deletes reminders from the store, compacting it if enough deletions have piled up, and
+     * reloads the wheel from the store's pending reminders so it holds neither the deleted ones
+     * nor ids from before the compaction. Returns how many were deleted.
+     */
+    public int delete(int[] ids) throws IOException {
+        synchronized (wheel) {
+            int removed = store.delete(ids);
+            if (removed == 0) return 0;
+            store.compactIfNeeded();
+            wheel.clear();
+            for (ReminderStore.Reminder reminder : store.pending()) {
+                wheel.schedule(reminder.due().atZone(zone).toEpochSecond(), reminder);
+            }
+            wheel.notifyAll();
+            return removed;
+        }
+    }
+
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<ReminderStore.Reminder> batch;
+            synchronized (wheel) {
+                if (closed) return;
+                long now = clockMillis.getAsLong();
+                batch = wheel.advance(Math.floorDiv(now, 1000));
+                if (batch.isEmpty()) {
+                    long next = wheel.nextTick();
+                    long sleep = next == TimerWheel.NONE ? 0 : Math.min(MAX_SLEEP_MILLIS, Math.max(1, next * 1000 - now));
+                    try {
+                        wheel.wait(sleep);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    continue;
+                }
+                // Under the wheel lock, so a concurrent delete cannot renumber the batch's ids first
+                markFired(batch);
+            }
+            deliver(batch);
+        }
+    }
+
+    private void markFired(List<ReminderStore.Reminder> batch) {
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = batch.get(i).id();
+        try {
+            store.markFired(ids);
+        } catch (IOException e) {
+            // Still deliver; the worst case is the batch firing again after a restart
+            System.err.println("reminders: cannot record fired reminders: " + e.getMessage());
+        }
+    }
+
+    private void deliver(List<ReminderStore.Reminder> batch) {
+        try {
+            onDue.accept(batch);
+        } catch (RuntimeException e) {
+            System.err.println("reminders: listener failed: " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (wheel) {
+            closed = true;
+            wheel.notifyAll();
+        }
+    }
+
+    /**
+     * Due time for what a user typed: {@code 2026-11-02 09:00}, {@code 2026-11-02} (9:00),
+     * {@code in 30 minutes}, {@code in 2 hours}, {@code in 3 days}, {@code in 1 week},
+     * {@code tomorrow}, {@code tomorrow 18:30}, or {@code 3 days before 2026-12-20} (also hours
+     * and weeks). Throws {@link IllegalArgumentException} with the accepted forms otherwise.
+     */
+    public static LocalDateTime parseDue(String input, LocalDateTime now) {
+        String text = input.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        try {
+            Matcher m = RELATIVE.matcher(text);
+            if (m.matches()) return now.plus(amount(Long.parseLong(m.group(1)), m.group(2))).withSecond(0).withNano(0);
+            m = TOMORROW.matcher(text);
+            if (m.matches()) {
+                LocalTime time = m.group(1) == null ? DEFAULT_TIME : LocalTime.parse(pad(m.group(1)));
+                return now.toLocalDate().plusDays(1).atTime(time);
+            }
+            m = BEFORE.matcher(text);
+            if (m.matches()) return absolute(m.group(3)).minus(amount(Long.parseLong(m.group(1)), m.group(2)));
+            return absolute(text);
+        } catch (DateTimeException | ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException(unrecognised(input));
+        }
+    }
+
+    private static LocalDateTime absolute(String text) {
+        try {
+            return text.length() <= 10 ? LocalDate.parse(text).atTime(DEFAULT_TIME) : LocalDateTime.parse(text, DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(unrecognised(text));
+        }
+    }
+
+    private static Duration amount(long n, String unit) {
+        return switch (unit) {
+            case "minute", "min" -> Duration.ofMinutes(n);
+            case "hour", "hr" -> Duration.ofHours(n);
+            case "day" -> Duration.ofDays(n);
+            default -> Duration.ofDays(7 * n);
+        };
+    }
+
+    private static String pad(String time) {
+        return time.length() == 4 ? "0" + time : time;
+    }
+
+    private static String unrecognised(String input) {
+        return "Unrecognised due time \"" + input.trim() + "\". Try 2026-11-02 09:00, in 3 days, tomorrow 18:30"
+            + " or 3 days before 2026-12-20.";
+    }
+}
@@ -0,0 +1,116 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reminder scheduling at scale: timer-wheel inserts and drains against a {@link DelayQueue}
+ * style binary heap over a year of one-second ticks, then a 100k-reminder file reopened with
+ * its pending schedule, overdue reminders firing in the first batch, and scheduler CPU while idle.
+ */
+public class ReminderSchedulerBenchmark {
+    private static final long YEAR = 365L * 24 * 3600;
+
+    private record Due(long at) implements Delayed {
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(at - System.currentTimeMillis() / 1000, TimeUnit.SECONDS);
+        }
+
+        public int compareTo(Delayed o) {
+            return Long.compare(at, ((Due) o).at);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int n = 1_000_000;
+        long start = System.currentTimeMillis() / 1000;
+        long[] ticks = new Random(5).longs(n, start, start + YEAR).toArray();
+
+        Bench.header("Scheduling " + n + " timers over a year");
+        Bench.throughput("TimerWheel.schedule", 3, 5, n, () -> {
+            TimerWheel<Object> wheel = new TimerWheel<>(start);
+            for (long t : ticks) wheel.schedule(t, wheel);
+            return wheel.size();
+        });
+        Bench.throughput("DelayQueue.offer", 3, 5, n, () -> {
+            DelayQueue<Due> queue = new DelayQueue<>();
+            for (long t : ticks) queue.offer(new Due(t));
+            return queue.size();
+        });
+        // DelayQueue reads the real clock, so its drain is modelled with the same binary heap
+        Bench.throughput("PriorityQueue (heap) drain, 1 poll run/minute", 1, 3, n, () -> {
+            PriorityQueue<Due> heap = new PriorityQueue<>();
+            for (long t : ticks) heap.offer(new Due(t));
+            long fired = 0;
+            for (long now = start; now <= start + YEAR; now += 60) {
+                while (!heap.isEmpty() && heap.peek().at() <= now) {
+                    heap.poll();
+                    fired++;
+                }
+            }
+            return fired;
+        });
+        Bench.throughput("TimerWheel drain, 1 advance/minute", 1, 3, n, () -> {
+            TimerWheel<Object> wheel = new TimerWheel<>(start);
+            for (long t : ticks) wheel.schedule(t, wheel);
+            long fired = 0;
+            for (long now = start; now <= start + YEAR; now += 60) fired += wheel.advance(now).size();
+            if (fired != n) throw new AssertionError(fired + " fired of " + n);
+            return fired;
+        });
+
+        Bench.header("Reminder file with 100k pending");
+        Path file = Files.createTempFile("reminders", ".txt");
+        Path index = file.resolveSibling(file.getFileName() + ".idx");
+        try {
+            int reminders = 100_000, overdue = 500;
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            Random random = new Random(9);
+            long t0 = System.nanoTime();
+            try (ReminderStore store = ReminderStore.open(file)) {
+                for (int i = 0; i < reminders; i++) {
+                    LocalDateTime due = i < overdue ? now.minusMinutes(1 + i) : now.plusMinutes(10 + random.nextInt(60 * 24 * 90));
+                    store.append(now, "book hotel tickets #" + i, due);
+                }
+            }
+            System.out.printf("appended %d reminders in %.0f ms%n", reminders, (System.nanoTime() - t0) / 1e6);
+
+            for (int round = 1; round <= 2; round++) {
+                AtomicInteger fired = new AtomicInteger();
+                AtomicInteger batches = new AtomicInteger();
+                long open = System.nanoTime();
+                try (ReminderStore store = ReminderStore.open(file)) {
+                    long loaded = System.nanoTime();
+                    ReminderScheduler scheduler = ReminderScheduler.load(store, batch -> {
+                        batches.incrementAndGet();
+                        fired.addAndGet(batch.size());
+                    });
+                    long scheduled = System.nanoTime();
+                    System.out.printf("round %d: open %.0f ms, load + schedule %d pending %.0f ms%n", round,
+                        (loaded - open) / 1e6, scheduler.pending(), (scheduled - loaded) / 1e6);
+                    scheduler.start();
+                    Thread.sleep(200);
+                    Thread worker = Thread.getAllStackTraces().keySet().stream()
+                        .filter(t -> t.getName().equals("reminder-scheduler")).findFirst().orElseThrow();
+                    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                    long cpu0 = threads.getThreadCpuTime(worker.getId());
+                    Thread.sleep(2_000);
+                    long cpu1 = threads.getThreadCpuTime(worker.getId());
+                    System.out.printf("round %d: fired %d overdue in %d batch(es); %d still pending; idle scheduler CPU %.2f ms over 2 s%n",
+                        round, fired.get(), batches.get(), scheduler.pending(), (cpu1 - cpu0) / 1e6);
+                    scheduler.close();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(index);
+        }
+    }
+}
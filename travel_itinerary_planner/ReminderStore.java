@@ -0,0 +1,586 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Append-only reminder log with a sidecar index.
+ *
+ * <p>The log is the plain {@code [yyyy-MM-dd HH:mm:ss] text} file the app has always
+ * written, so existing files import transparently. A reminder with a due time ends in a tab
+ * and {@code due yyyy-MM-dd HH:mm}; appended text never contains a tab, so a note that merely
+ * mentions a date is never scheduled. Lines that start with a tab are state records,
+ * {@code fired <offset>} or {@code deleted <offset>} for the reminder whose line starts at
+ * that offset, appended and forced before the index changes, so rebuilding the index from
+ * the log neither refires delivered reminders nor brings back deleted ones. Next to the log,
+ * {@code <log>.idx} holds a 16-byte header (magic, version, indexed log length) followed by
+ * fixed 32-byte entries (offset, created epoch second, due epoch second, length, flags).
+ * Newest-N and date-range queries use the index and read only the matching bytes through a
+ * memory-mapped view of the log. Version 1 indexes (24-byte entries without a due time) are
+ * read and rewritten on open; version 2 indexes, from before the tab marker, are rebuilt.
+ *
+ * <p>Recovery on open: only index entries within the indexed length in the header are trusted
+ * (an append that crashed between writing its entry and its header is simply re-read), entries
+ * that point past the end of the log are dropped, log lines after the last trusted entry are
+ * indexed (state records among them are applied again), and an unterminated last line left by a crashed append is truncated. Only
+ * the entries and header that recovery changed are written back, so a clean open leaves the
+ * index file alone. An index whose entries overlap or run backwards is discarded and rebuilt from the log. Deleted reminders
+ * are flagged in the index; once enough have piled up, {@link #compactIfNeeded()} (run on open and
+ * after each deletion by {@link ReminderScheduler#delete}) rewrites both files through temp
+ * files and atomic moves.
+ */
+public final class ReminderStore implements Closeable {
+    public static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int MAGIC = 0x52494458; // "RIDX"
+    private static final int VERSION = 3;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 32;
+    private static final int V1_ENTRY_BYTES = 24;
+    private static final int FLAGS_AT = 28;
+    private static final int FLAG_DELETED = 1;
+    private static final int FLAG_FIRED = 2;
+    public static final DateTimeFormatter DUE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    // "\tdue yyyy-MM-dd HH:mm"
+    private static final int DUE_SUFFIX_BYTES = 21;
+    private static final String FIRED_RECORD = "\tfired ";
+    private static final String DELETED_RECORD = "\tdeleted ";
+    // Long enough for a timestamp and for a whole state record
+    private static final int HEAD_BYTES = 32;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int SCAN_CHUNK = 1 << 16;
+    private static final long MAX_MAP_WINDOW = 1L << 30;
+    private static final byte[] LINE_END = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    // Compact once at least this share of records is deleted
+    private static final double COMPACT_RATIO = 0.25;
+    private static final int COMPACT_MIN_DELETED = 64;
+
+    private final Path logPath;
+    private final Path indexPath;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private FileChannel log;
+    private FileChannel index;
+
+    // In-memory copy of the index, kept in primitive arrays
+    private long[] offsets = new long[64];
+    private long[] created = new long[64];
+    private long[] due = new long[64];
+    private int[] lengths = new int[64];
+    private int[] flags = new int[64];
+    private int count;
+    private int deleted;
+    // Set while recovering: version of the index file loaded, and the lowest entry whose bytes there are stale
+    private int loadedVersion;
+    private int staleFrom;
+
+    /**
+     * A stored reminder; {@code id} is its position in the index and changes on compaction.
+     * {@code due} is null for plain notes; {@code fired} is set once a due reminder was delivered.
+     */
+    public record Reminder(int id, LocalDateTime created, String text, LocalDateTime due, boolean fired) {
+        public String formatted() {
+            String line = created == null ? text : "[" + created.format(TIMESTAMP) + "] " + text;
+            return due == null ? line : line + " (due " + due.format(DUE) + ")";
+        }
+    }
+
+    private ReminderStore(Path logPath) {
+        this.logPath = logPath;
+        this.indexPath = logPath.resolveSibling(logPath.getFileName() + ".idx");
+    }
+
+    public static ReminderStore open(Path logPath) throws IOException {
+        ReminderStore store = new ReminderStore(logPath);
+        store.openChannels();
+        store.recover();
+        return store;
+    }
+
+    private void openChannels() throws IOException {
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void recover() throws IOException {
+        long indexedLength = loadIndex();
+        boolean hadIndex = indexedLength >= 0;
+        // Entries past the header's length belong to an append that crashed before its header
+        // write, and entries past the end of the log are no longer backed by it (e.g. the log
+        // was restored from an older copy); both are dropped and re-read from the log below
+        long trusted = Math.min(Math.max(0, indexedLength), log.size());
+        while (count > 0 && offsets[count - 1] + lengths[count - 1] > trusted) {
+            if ((flags[--count] & FLAG_DELETED) != 0) deleted--;
+        }
+        long indexed = count == 0 ? 0 : offsets[count - 1] + lengths[count - 1];
+        int kept = count;
+        staleFrom = kept;
+        long tornAt = scan(indexed);
+        if (tornAt >= 0) {
+            if (hadIndex) {
+                log.truncate(tornAt); // half-written append from a crash
+            } else {
+                log.write(ByteBuffer.wrap(LINE_END), log.size()); // legacy file without trailing newline
+                scan(tornAt);
+            }
+        }
+        if (!hadIndex || loadedVersion != VERSION) {
+            rewriteIndexFile();
+        } else {
+            updateIndexFile(kept, indexedLength);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Brings a loaded index in line with recovery without rewriting it: entries past the
+     * {@code kept} ones are cut off, entries from {@link #staleFrom} on are written, and the
+     * header goes last. A store that closed cleanly leaves the file untouched.
+     */
+    private void updateIndexFile(int kept, long indexedLength) throws IOException {
+        long keptEnd = HEADER_BYTES + (long) kept * ENTRY_BYTES;
+        boolean changed = index.size() > keptEnd;
+        if (changed) index.truncate(keptEnd);
+        if (staleFrom < count) {
+            writeEntries(index, staleFrom);
+            changed = true;
+        }
+        if (changed || indexedLength != log.size()) writeHeader(index, log.size());
+    }
+
+    /** Loads the index entries and returns the header's indexed log length, or -1 without a usable index. */
+    private long loadIndex() throws IOException {
+        long size = index.size();
+        if (size < HEADER_BYTES) return -1;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        index.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) return -1;
+        int version = header.getInt();
+        if (version != VERSION && version != 1) return -1;
+        loadedVersion = version;
+        long indexedLength = header.getLong();
+        if (indexedLength < 0) return -1;
+        int entryBytes = version == 1 ? V1_ENTRY_BYTES : ENTRY_BYTES;
+        int entries = (int) ((size - HEADER_BYTES) / entryBytes);
+        ByteBuffer buf = ByteBuffer.allocate(entries * entryBytes);
+        while (buf.hasRemaining() && index.read(buf, HEADER_BYTES + buf.position()) > 0) {
+            // keep reading
+        }
+        buf.flip();
+        long end = 0;
+        // Only the flags of entries are read here; state records past the last entry are re-applied by scan()
+        for (int i = 0; i < entries && buf.remaining() >= entryBytes; i++) {
+            long offset = buf.getLong(), time = buf.getLong();
+            long dueAt = version == 1 ? NO_TIME : buf.getLong();
+            int length = buf.getInt();
+            if (offset < end || length <= 0) { // not an index this store wrote; rebuild it from the log
+                count = 0;
+                deleted = 0;
+                return -1;
+            }
+            addEntry(offset, time, dueAt, length, buf.getInt());
+            end = offset + length;
+        }
+        return indexedLength;
+    }
+
+    /**
+     * Indexes complete lines from {@code from} to the end of the log and applies the state
+     * records among them. Returns the start of a trailing unterminated line, or -1 if the log
+     * ends cleanly.
+     */
+    private long scan(long from) throws IOException {
+        long size = log.size();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(SCAN_CHUNK);
+        byte[] head = new byte[HEAD_BYTES];
+        int headLen = 0;
+        byte[] tail = new byte[DUE_SUFFIX_BYTES]; // ring of the last bytes of the line
+        int content = 0;
+        long lineStart = from;
+        long pos = from;
+        while (pos < size) {
+            chunk.clear();
+            int n = log.read(chunk, pos);
+            if (n <= 0) break;
+            chunk.flip();
+            for (int i = 0; i < n; i++) {
+                byte b = chunk.get(i);
+                if (b == '\n') {
+                    long end = pos + i + 1;
+                    if (content > 0 && head[0] == '\t') {
+                        if (content <= headLen) applyRecord(new String(head, 0, headLen, StandardCharsets.US_ASCII));
+                    } else if (content > 0) { // blank lines are skipped, not indexed
+                        addEntry(lineStart, parseTime(head, headLen), parseDue(tail, content), (int) (end - lineStart), 0);
+                    }
+                    lineStart = end;
+                    headLen = 0;
+                    content = 0;
+                } else if (b != '\r') {
+                    tail[content % tail.length] = b;
+                    content++;
+                    if (headLen < head.length) head[headLen++] = b;
+                }
+            }
+            pos += n;
+        }
+        return lineStart < size ? lineStart : -1;
+    }
+
+    private long parseTime(byte[] h, int len) {
+        // [yyyy-MM-dd HH:mm:ss]
+        if (len < 21 || h[0] != '[' || h[5] != '-' || h[8] != '-' || h[11] != ' ' || h[20] != ']') return NO_TIME;
+        int year = digits(h, 1, 4), month = digits(h, 6, 2), day = digits(h, 9, 2);
+        int hour = digits(h, 12, 2), minute = digits(h, 15, 2), second = digits(h, 18, 2);
+        if ((year | month | day | hour | minute | second) < 0) return NO_TIME;
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second).atZone(zone).toEpochSecond();
+        } catch (DateTimeException e) {
+            return NO_TIME;
+        }
+    }
+
+    private long parseDue(byte[] ring, int content) {
+        if (content < DUE_SUFFIX_BYTES) return NO_TIME;
+        byte[] t = new byte[DUE_SUFFIX_BYTES];
+        for (int i = 0; i < t.length; i++) t[i] = ring[(content - t.length + i) % t.length];
+        // "\tdue yyyy-MM-dd HH:mm"
+        if (t[0] != '\t' || t[1] != 'd' || t[2] != 'u' || t[3] != 'e' || t[4] != ' '
+                || t[9] != '-' || t[12] != '-' || t[15] != ' ' || t[18] != ':') {
+            return NO_TIME;
+        }
+        int year = digits(t, 5, 4), month = digits(t, 10, 2), day = digits(t, 13, 2);
+        int hour = digits(t, 16, 2), minute = digits(t, 19, 2);
+        if ((year | month | day | hour | minute) < 0) return NO_TIME;
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute).atZone(zone).toEpochSecond();
+        } catch (DateTimeException e) {
+            return NO_TIME;
+        }
+    }
+
+    // "\tfired <offset>" or "\tdeleted <offset>"; records for offsets that start no indexed line are ignored
+    private void applyRecord(String record) {
+        int flag = record.startsWith(FIRED_RECORD) ? FLAG_FIRED : record.startsWith(DELETED_RECORD) ? FLAG_DELETED : 0;
+        if (flag == 0) return;
+        long offset;
+        try {
+            offset = Long.parseLong(record.substring(flag == FLAG_FIRED ? FIRED_RECORD.length() : DELETED_RECORD.length()));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        int id = Arrays.binarySearch(offsets, 0, count, offset);
+        if (id >= 0 && (flags[id] & flag) == 0) {
+            setFlag(id, flag);
+            staleFrom = Math.min(staleFrom, id);
+        }
+    }
+
+    private void setFlag(int id, int flag) {
+        if ((flag & FLAG_DELETED) != 0 && (flags[id] & FLAG_DELETED) == 0) deleted++;
+        flags[id] |= flag;
+    }
+
+    private static int digits(byte[] b, int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            if (b[i] < '0' || b[i] > '9') return -1;
+            v = v * 10 + (b[i] - '0');
+        }
+        return v;
+    }
+
+    private void addEntry(long offset, long time, long dueAt, int length, int flag) {
+        if (count == offsets.length) {
+            int cap = count * 2;
+            offsets = Arrays.copyOf(offsets, cap);
+            created = Arrays.copyOf(created, cap);
+            due = Arrays.copyOf(due, cap);
+            lengths = Arrays.copyOf(lengths, cap);
+            flags = Arrays.copyOf(flags, cap);
+        }
+        offsets[count] = offset;
+        created[count] = time;
+        due[count] = dueAt;
+        lengths[count] = length;
+        flags[count] = flag;
+        if ((flag & FLAG_DELETED) != 0) deleted++;
+        count++;
+    }
+
+    private ByteBuffer entryBytes(int i) {
+        ByteBuffer b = ByteBuffer.allocate(ENTRY_BYTES);
+        b.putLong(offsets[i]).putLong(created[i]).putLong(due[i]).putInt(lengths[i]).putInt(flags[i]).flip();
+        return b;
+    }
+
+    private void writeHeader(FileChannel channel, long indexedLength) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES);
+        b.putInt(MAGIC).putInt(VERSION).putLong(indexedLength).flip();
+        channel.write(b, 0);
+    }
+
+    private void rewriteIndexFile() throws IOException {
+        index.truncate(0);
+        writeIndex(index, log.size());
+    }
+
+    private void writeIndex(FileChannel channel, long indexedLength) throws IOException {
+        writeHeader(channel, indexedLength);
+        writeEntries(channel, 0);
+    }
+
+    // Entries from id `from` to the last, at their fixed positions
+    private void writeEntries(FileChannel channel, int from) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Math.max(1, count - from) * ENTRY_BYTES);
+        for (int i = from; i < count; i++) buf.put(entryBytes(i));
+        buf.flip();
+        long pos = HEADER_BYTES + (long) from * ENTRY_BYTES;
+        while (buf.hasRemaining()) pos += channel.write(buf, pos);
+    }
+
+    /** Appends a reminder stamped with the current time. */
+    public Reminder append(String text) throws IOException {
+        return append(LocalDateTime.now().withNano(0), text, null);
+    }
+
+    /** Appends a reminder stamped with the current time that falls due at {@code dueAt} (minute precision). */
+    public Reminder append(String text, LocalDateTime dueAt) throws IOException {
+        return append(LocalDateTime.now().withNano(0), text, dueAt);
+    }
+
+    public Reminder append(LocalDateTime when, String text) throws IOException {
+        return append(when, text, null);
+    }
+
+    public synchronized Reminder append(LocalDateTime when, String text, LocalDateTime dueAt) throws IOException {
+        String clean = text.replace('\r', ' ').replace('\n', ' ').replace('\t', ' ');
+        LocalDateTime dueMinute = dueAt == null ? null : dueAt.withSecond(0).withNano(0);
+        Reminder reminder = new Reminder(count, when, clean, dueMinute, false);
+        String line = "[" + when.format(TIMESTAMP) + "] " + clean + (dueMinute == null ? "" : "\tdue " + dueMinute.format(DUE));
+        byte[] body = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(body.length + LINE_END.length).put(body).put(LINE_END);
+        record.flip();
+        long offset = log.size();
+        long pos = offset;
+        while (record.hasRemaining()) pos += log.write(record, pos);
+        log.force(false);
+
+        addEntry(offset, when.atZone(zone).toEpochSecond(),
+            dueMinute == null ? NO_TIME : dueMinute.atZone(zone).toEpochSecond(), (int) (pos - offset), 0);
+        int id = count - 1;
+        index.write(entryBytes(id), HEADER_BYTES + (long) id * ENTRY_BYTES);
+        writeHeader(index, pos);
+        return reminder;
+    }
+
+    /** Number of live (not deleted) reminders. */
+    public synchronized int size() {
+        return count - deleted;
+    }
+
+    /** Up to {@code n} most recent live reminders, oldest first. */
+    public synchronized List<Reminder> newest(int n) throws IOException {
+        int from = count;
+        int live = 0;
+        while (from > 0 && live < n) {
+            if ((flags[--from] & FLAG_DELETED) == 0) live++;
+        }
+        return read(from, count);
+    }
+
+    /**
+     * Live reminders created in {@code [from, to)}, found by binary search over the index.
+     * Assumes records were appended in time order; lines without a timestamp sort first.
+     */
+    public synchronized List<Reminder> between(LocalDateTime from, LocalDateTime to) throws IOException {
+        return read(lowerBound(from.atZone(zone).toEpochSecond()), lowerBound(to.atZone(zone).toEpochSecond()));
+    }
+
+    private int lowerBound(long epochSecond) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (created[mid] < epochSecond) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Every live reminder, oldest first. */
+    public synchronized List<Reminder> all() throws IOException {
+        return read(0, count);
+    }
+
+    /** Live reminders with a due time that have not fired yet, in log order. Only their lines are decoded. */
+    public synchronized List<Reminder> pending() throws IOException {
+        return read(0, count, i -> due[i] != NO_TIME && (flags[i] & FLAG_FIRED) == 0);
+    }
+
+    private List<Reminder> read(int from, int to) throws IOException {
+        return read(from, to, i -> true);
+    }
+
+    private List<Reminder> read(int from, int to, IntPredicate wanted) throws IOException {
+        List<Reminder> out = new ArrayList<>(Math.max(0, to - from));
+        long end = to > from ? offsets[to - 1] + lengths[to - 1] : 0;
+        int i = from;
+        while (i < to) {
+            // Mapped in bounded windows so huge ranges never need a single giant mapping
+            long windowStart = offsets[i];
+            long windowEnd = Math.max(windowStart + lengths[i], Math.min(end, windowStart + MAX_MAP_WINDOW));
+            MappedByteBuffer map = log.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            for (; i < to && offsets[i] + lengths[i] <= windowEnd; i++) {
+                if ((flags[i] & FLAG_DELETED) == 0 && wanted.test(i)) out.add(decode(i, map, (int) (offsets[i] - windowStart)));
+            }
+        }
+        return out;
+    }
+
+    private Reminder decode(int id, ByteBuffer map, int pos) {
+        int len = lengths[id];
+        while (len > 0 && (map.get(pos + len - 1) == '\n' || map.get(pos + len - 1) == '\r')) len--;
+        String line = StandardCharsets.UTF_8.decode(map.slice(pos, len)).toString();
+        LocalDateTime dueAt = null;
+        if (due[id] != NO_TIME) {
+            // The index already holds both times, which is much cheaper than parsing the text
+            dueAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(due[id]), zone);
+            line = line.substring(0, line.length() - DUE_SUFFIX_BYTES);
+        }
+        boolean fired = (flags[id] & FLAG_FIRED) != 0;
+        if (created[id] == NO_TIME) {
+            return new Reminder(id, null, line, dueAt, fired);
+        }
+        LocalDateTime when = LocalDateTime.ofInstant(Instant.ofEpochSecond(created[id]), zone);
+        int textStart = line.length() > 21 && line.charAt(21) == ' ' ? 22 : 21;
+        return new Reminder(id, when, line.substring(Math.min(textStart, line.length())), dueAt, fired);
+    }
+
+    /**
+     * Deletes reminders and returns how many were live; their lines stay in the log until the
+     * next compaction. Callers that hold ids, like {@link ReminderScheduler}, should go through
+     * {@link ReminderScheduler#delete}.
+     */
+    public synchronized int delete(int[] ids) throws IOException {
+        return recordFlag(ids, FLAG_DELETED, DELETED_RECORD);
+    }
+
+    /** Records that these reminders were delivered, so they do not fire again after a restart. */
+    public synchronized void markFired(int[] ids) throws IOException {
+        recordFlag(ids, FLAG_FIRED, FIRED_RECORD);
+    }
+
+    // One forced log write of state records, then the index flags and header
+    private int recordFlag(int[] ids, int flag, String record) throws IOException {
+        StringBuilder records = new StringBuilder();
+        int[] changed = new int[ids.length];
+        int n = 0;
+        for (int id : ids) {
+            if (id < 0 || id >= count || (flags[id] & flag) != 0) continue;
+            records.append(record).append(offsets[id]).append(System.lineSeparator());
+            changed[n++] = id;
+        }
+        if (n == 0) return 0;
+        ByteBuffer buf = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.US_ASCII));
+        long pos = log.size();
+        while (buf.hasRemaining()) pos += log.write(buf, pos);
+        log.force(false);
+        int newly = 0;
+        for (int i = 0; i < n; i++) {
+            if ((flags[changed[i]] & flag) != 0) continue; // listed twice
+            setFlag(changed[i], flag);
+            writeFlags(changed[i]);
+            newly++;
+        }
+        writeHeader(index, pos);
+        return newly;
+    }
+
+    private void writeFlags(int id) throws IOException {
+        ByteBuffer flag = ByteBuffer.allocate(4).putInt(flags[id]).flip();
+        index.write(flag, HEADER_BYTES + (long) id * ENTRY_BYTES + FLAGS_AT);
+    }
+
+    /** Compacts when enough records are deleted; called on open and after deletions. Returns whether it compacted. */
+    public synchronized boolean compactIfNeeded() throws IOException {
+        if (deleted < COMPACT_MIN_DELETED || deleted < count * COMPACT_RATIO) return false;
+        compact();
+        return true;
+    }
+
+    /**
+     * Rewrites the log without deleted reminders and old state records, followed by one fired
+     * record per fired reminder. Ids of the remaining reminders change.
+     */
+    public synchronized void compact() throws IOException {
+        Path tmpLog = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        Path tmpIndex = indexPath.resolveSibling(indexPath.getFileName() + ".compact");
+        long[] newOffsets = new long[Math.max(1, count - deleted)];
+        int kept = 0;
+        long logEnd;
+        try (FileChannel out = FileChannel.open(tmpLog, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long pos = 0;
+            StringBuilder fired = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                if ((flags[i] & FLAG_DELETED) != 0) continue;
+                if ((flags[i] & FLAG_FIRED) != 0) fired.append(FIRED_RECORD).append(pos).append(System.lineSeparator());
+                newOffsets[kept++] = pos;
+                out.position(pos);
+                for (long done = 0; done < lengths[i]; ) {
+                    done += log.transferTo(offsets[i] + done, lengths[i] - done, out);
+                }
+                pos += lengths[i];
+            }
+            ByteBuffer records = ByteBuffer.wrap(fired.toString().getBytes(StandardCharsets.US_ASCII));
+            while (records.hasRemaining()) pos += out.write(records, pos);
+            out.force(true);
+            logEnd = pos;
+        }
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if ((flags[i] & FLAG_DELETED) != 0) continue;
+            offsets[n] = newOffsets[n];
+            created[n] = created[i];
+            due[n] = due[i];
+            lengths[n] = lengths[i];
+            flags[n] = flags[i] & FLAG_FIRED;
+            n++;
+        }
+        count = n;
+        deleted = 0;
+        try (FileChannel out = FileChannel.open(tmpIndex, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeIndex(out, logEnd);
+            out.force(true);
+        }
+        // Without an index the log is re-scanned on open, so a crash between the moves is safe
+        close();
+        Files.deleteIfExists(indexPath);
+        Files.move(tmpLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tmpIndex, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openChannels();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            index.close();
+        }
+    }
+}
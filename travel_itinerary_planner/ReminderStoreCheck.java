@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Crash-recovery check for {@link ReminderStore}: each case damages the log or its index the
+ * way a crash or a restore would, reopens the store, and compares what it reads back with what
+ * was appended. Covers a torn last append, an append that crashed before its index entry or
+ * before its header or its fired flag, a clean reopen (which must not write the index), a log
+ * restored from an older copy, a lost or garbled index (fired and deleted reminders must stay
+ * so), a legacy log without a trailing newline or with a note that merely mentions a due time,
+ * and deletion with compaction through {@link ReminderScheduler}.
+ * Exits with status 1 on a failure.
+ */
+public class ReminderStoreCheck {
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 9, 0);
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("reminder-check");
+        try {
+            Path log = dir.resolve("reminders.txt");
+            Path index = dir.resolve("reminders.txt.idx");
+
+            List<String> texts = fresh(log, index, 3);
+            Files.write(log, "[2026-03-01 10:00:00] half a remi".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            long torn = Files.size(log);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("torn append: earlier reminders kept", texts(store).equals(texts));
+                check("torn append: partial line truncated", Files.size(log) < torn);
+                store.append(T0.plusDays(1), "after the crash");
+                texts.add("after the crash");
+            }
+            expect("torn append: store usable afterwards", log, texts);
+
+            texts = fresh(log, index, 3);
+            Files.write(log, ("[2026-03-02 08:00:00] only in the log\tdue 2026-03-09 08:00" + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            texts.add("only in the log");
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("crash before the index entry: line indexed", texts(store).equals(texts));
+                check("crash before the index entry: due time parsed", store.pending().size() == 3
+                    && store.pending().get(2).due().equals(LocalDateTime.of(2026, 3, 9, 8, 0)));
+            }
+
+            // The entry of the last append was written but the header still has the old length;
+            // the entry's flags claim it was deleted, which must not be trusted
+            texts = fresh(log, index, 3);
+            long indexedLength = Files.size(log);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                store.append(T0.plusDays(2), "entry without header");
+            }
+            texts.add("entry without header");
+            byte[] idx = Files.readAllBytes(index);
+            ByteBuffer.wrap(idx).putLong(8, indexedLength).putInt(idx.length - 4, 1);
+            Files.write(index, idx);
+            expect("crash before the header: entry re-read from the log", log, texts);
+
+            // Nothing to recover: the index must not be written at all
+            texts = fresh(log, index, 4);
+            idx = Files.readAllBytes(index);
+            FileTime stamp = FileTime.fromMillis(Files.getLastModifiedTime(index).toMillis() - 60_000);
+            Files.setLastModifiedTime(index, stamp);
+            expect("clean reopen: reminders read back", log, texts);
+            check("clean reopen: index left untouched", Arrays.equals(Files.readAllBytes(index), idx)
+                && Files.getLastModifiedTime(index).equals(stamp));
+
+            // A fired record reached the log but its flag never reached the index
+            texts = fresh(log, index, 3);
+            Files.write(log, ("\tfired 0" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("crash before the flag write: reminder stays fired", store.pending().size() == 1);
+            }
+            idx = Files.readAllBytes(index);
+            check("crash before the flag write: flag written to the index",
+                ByteBuffer.wrap(idx).getInt(ReminderStore.HEADER_BYTES + ReminderStore.ENTRY_BYTES - 4) == 2
+                    && ByteBuffer.wrap(idx).getLong(8) == Files.size(log));
+
+            texts = fresh(log, index, 2);
+            byte[] older = Files.readAllBytes(log);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                store.append(T0.plusDays(3), "lost in the restore");
+            }
+            Files.write(log, older);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("log restored from an older copy: newer entries dropped", texts(store).equals(texts));
+                store.append(T0.plusDays(4), "after the restore");
+                texts.add("after the restore");
+            }
+            expect("log restored from an older copy: store usable afterwards", log, texts);
+
+            texts = fresh(log, index, 5);
+            Files.delete(index);
+            expect("missing index: rebuilt from the log", log, texts);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("missing index: due times rebuilt", store.pending().size() == 3);
+                store.markFired(new int[] {store.pending().get(0).id()});
+                store.delete(new int[] {1});
+            }
+            texts.remove(1);
+            Files.delete(index);
+            expect("missing index: deleted reminders stay deleted", log, texts);
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("missing index: fired reminders stay fired", store.pending().size() == 2);
+            }
+
+            texts = fresh(log, index, 5);
+            idx = Files.readAllBytes(index);
+            ByteBuffer.wrap(idx).putLong(ReminderStore.HEADER_BYTES + ReminderStore.ENTRY_BYTES, 1);
+            Files.write(index, idx);
+            expect("garbled index: rebuilt from the log", log, texts);
+
+            Files.delete(index);
+            Files.writeString(log, "[2026-01-05 10:00:00] legacy one (due 2026-01-09 08:00)\n[2026-01-06 11:30:00] legacy two");
+            List<String> legacy = new ArrayList<>(List.of("legacy one (due 2026-01-09 08:00)", "legacy two"));
+            try (ReminderStore store = ReminderStore.open(log)) {
+                check("legacy log without trailing newline: last line kept", texts(store).equals(legacy));
+                check("legacy log: a note mentioning a due time is not scheduled", store.pending().isEmpty());
+                store.append(T0, "appended after import");
+                legacy.add("appended after import");
+            }
+            expect("legacy log: append lands on its own line", log, legacy);
+
+            checkDeletion(log, index);
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+        System.out.println(failures == 0 ? "reminder store recovery: ok" : failures + " reminder store check(s) failed");
+        if (failures > 0) System.exit(1);
+    }
+
+    // Deleting 70 of 80 overdue reminders compacts the store; the 10 left must fire, be marked
+    // fired under their new ids, and stay fired after a reopen
+    private static void checkDeletion(Path log, Path index) throws Exception {
+        fresh(log, index, 0);
+        List<String> kept = new ArrayList<>();
+        List<ReminderStore.Reminder> delivered = new ArrayList<>();
+        CountDownLatch fired = new CountDownLatch(1);
+        try (ReminderStore store = ReminderStore.open(log)) {
+            int[] doomed = new int[70];
+            int d = 0;
+            for (int i = 0; i < 80; i++) {
+                ReminderStore.Reminder r = store.append(T0.plusMinutes(i), "task " + i, T0.plusDays(1));
+                if (i % 8 == 3) kept.add(r.text()); else doomed[d++] = r.id();
+            }
+            long now = T0.plusDays(2).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            ReminderScheduler scheduler = new ReminderScheduler(store, batch -> {
+                delivered.addAll(batch);
+                fired.countDown();
+            }, () -> now);
+            for (ReminderStore.Reminder r : store.pending()) scheduler.schedule(r);
+            long logBefore = Files.size(log);
+            check("delete: all 70 removed", scheduler.delete(doomed) == 70);
+            check("delete: store compacted", Files.size(log) < logBefore && store.size() == 10);
+            check("delete: schedule reloaded", scheduler.pending() == 10);
+            scheduler.start();
+            check("delete: kept reminders fire", fired.await(10, TimeUnit.SECONDS));
+            scheduler.close();
+            List<String> firedTexts = new ArrayList<>();
+            for (ReminderStore.Reminder r : delivered) firedTexts.add(r.text());
+            firedTexts.sort(Comparator.comparingInt(t -> Integer.parseInt(t.substring(5))));
+            check("delete: fired reminders are the kept ones", firedTexts.equals(kept));
+            check("delete: compacted ids marked fired", store.pending().isEmpty());
+        }
+        expect("delete: compacted log reopens", log, kept);
+        try (ReminderStore store = ReminderStore.open(log)) {
+            check("delete: fired state survives a reopen", store.pending().isEmpty());
+        }
+        Files.delete(index);
+        expect("delete: compacted log rebuilds its index", log, kept);
+        try (ReminderStore store = ReminderStore.open(log)) {
+            check("delete: fired state survives an index rebuild", store.pending().isEmpty());
+        }
+    }
+
+    // A new store with n reminders, every other one due a week after it was created
+    private static List<String> fresh(Path log, Path index, int n) throws IOException {
+        Files.deleteIfExists(log);
+        Files.deleteIfExists(index);
+        List<String> texts = new ArrayList<>();
+        try (ReminderStore store = ReminderStore.open(log)) {
+            for (int i = 0; i < n; i++) {
+                LocalDateTime created = T0.plusHours(i);
+                texts.add(store.append(created, "reminder " + i, i % 2 == 0 ? created.plusWeeks(1) : null).text());
+            }
+        }
+        return texts;
+    }
+
+    private static List<String> texts(ReminderStore store) throws IOException {
+        List<String> texts = new ArrayList<>();
+        for (ReminderStore.Reminder r : store.all()) texts.add(r.text());
+        return texts;
+    }
+
+    private static void expect(String name, Path log, List<String> texts) throws IOException {
+        try (ReminderStore store = ReminderStore.open(log)) {
+            check(name, texts(store).equals(texts) && store.size() == texts.size());
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+
+/**
+ * Offscreen images for the decorative parts of the window, so repaints while scrolling or
+ * resizing blit a cached image instead of re-filling gradients and re-antialiasing shapes.
+ * Each cache is keyed by the size it was rendered at and rebuilt when that changes. EDT only.
+ */
+final class RenderCache {
+    // Renders since startup, for the repaint overlay; cache hits do not count
+    private static int renders;
+
+    private RenderCache() {}
+
+    static int renders() {
+        return renders;
+    }
+
+    /**
+     * Vertical two-colour gradient covering a component. Kept in a {@link VolatileImage} on a
+     * real display, in a {@link BufferedImage} when headless or not yet displayable.
+     */
+    static final class Gradient {
+        private final Color top;
+        private final Color bottom;
+        private VolatileImage accelerated;
+        private BufferedImage buffered;
+
+        Gradient(Color top, Color bottom) {
+            this.top = top;
+            this.bottom = bottom;
+        }
+
+        void paint(Graphics g, JComponent c) {
+            int w = c.getWidth(), h = c.getHeight();
+            if (w <= 0 || h <= 0) return;
+            GraphicsConfiguration gc = c.getGraphicsConfiguration();
+            if (gc == null || GraphicsEnvironment.isHeadless()) {
+                if (buffered == null || buffered.getWidth() != w || buffered.getHeight() != h) {
+                    buffered = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                    render(buffered, w, h);
+                }
+                g.drawImage(buffered, 0, 0, null);
+                return;
+            }
+            if (accelerated != null && (accelerated.getWidth() != w || accelerated.getHeight() != h)) {
+                accelerated.flush();
+                accelerated = null;
+            }
+            // Video memory can be lost at any time (display change, screen lock); re-render until it sticks
+            do {
+                int status = accelerated == null ? VolatileImage.IMAGE_INCOMPATIBLE : accelerated.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (accelerated != null) accelerated.flush();
+                    accelerated = gc.createCompatibleVolatileImage(w, h);
+                    render(accelerated, w, h);
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    render(accelerated, w, h);
+                }
+                g.drawImage(accelerated, 0, 0, null);
+            } while (accelerated.contentsLost());
+        }
+
+        private void render(Image image, int w, int h) {
+            Graphics2D g2 = (Graphics2D) image.getGraphics();
+            try {
+                g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g2.setPaint(new GradientPaint(0, 0, top, 0, h, bottom));
+                g2.fillRect(0, 0, w, h);
+            } finally {
+                g2.dispose();
+            }
+            renders++;
+        }
+    }
+
+    /**
+     * Anti-aliased rounded-rectangle fill for a button, one translucent image per visual state,
+     * rendered on first use at the current size and device scale.
+     */
+    static final class RoundedBackground {
+        static final int NORMAL = 0, ROLLOVER = 1, PRESSED = 2, DISABLED = 3;
+
+        private final int arc;
+        private final BufferedImage[] images = new BufferedImage[4];
+        private int width, height;
+        private double scale;
+        private Color color;
+
+        RoundedBackground(int arc) {
+            this.arc = arc;
+        }
+
+        void paint(Graphics g, AbstractButton button) {
+            int w = button.getWidth(), h = button.getHeight();
+            if (w <= 0 || h <= 0) return;
+            // Render at device resolution so HiDPI screens get crisp edges
+            AffineTransform tx = ((Graphics2D) g).getTransform();
+            double deviceScale = Math.max(1, Math.max(tx.getScaleX(), tx.getScaleY()));
+            Color base = button.getBackground();
+            if (w != width || h != height || deviceScale != scale || !base.equals(color)) {
+                Arrays.fill(images, null);
+                width = w;
+                height = h;
+                scale = deviceScale;
+                color = base;
+            }
+            int state = state(button);
+            BufferedImage image = images[state];
+            if (image == null) {
+                image = render(shade(base, state), w, h, deviceScale);
+                images[state] = image;
+            }
+            g.drawImage(image, 0, 0, w, h, null);
+        }
+
+        private static int state(AbstractButton button) {
+            ButtonModel model = button.getModel();
+            if (!model.isEnabled()) return DISABLED;
+            if (model.isPressed() && model.isArmed()) return PRESSED;
+            return model.isRollover() ? ROLLOVER : NORMAL;
+        }
+
+        private static Color shade(Color base, int state) {
+            return switch (state) {
+                case ROLLOVER -> blend(base, Color.WHITE, 0.15f);
+                case PRESSED -> blend(base, Color.BLACK, 0.15f);
+                case DISABLED -> blend(base, Color.LIGHT_GRAY, 0.6f);
+                default -> base;
+            };
+        }
+
+        private static Color blend(Color a, Color b, float t) {
+            return new Color(
+                Math.round(a.getRed() + (b.getRed() - a.getRed()) * t),
+                Math.round(a.getGreen() + (b.getGreen() - a.getGreen()) * t),
+                Math.round(a.getBlue() + (b.getBlue() - a.getBlue()) * t),
+                a.getAlpha());
+        }
+
+        private BufferedImage render(Color fill, int w, int h, double deviceScale) {
+            int pw = (int) Math.ceil(w * deviceScale), ph = (int) Math.ceil(h * deviceScale);
+            BufferedImage image = new BufferedImage(pw, ph, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g2 = image.createGraphics();
+            try {
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.scale(deviceScale, deviceScale);
+                g2.setColor(fill);
+                g2.fillRoundRect(0, 0, w, h, arc, arc);
+            } finally {
+                g2.dispose();
+            }
+            renders++;
+            return image;
+        }
+    }
+
+    /**
+     * Times every repaint cycle by wrapping the {@link RepaintManager}, and reports count,
+     * last and mean cost together with the number of cache renders.
+     */
+    static final class PaintMeter {
+        private long cycles;
+        private long totalNanos;
+        private long lastNanos;
+        private long maxNanos;
+
+        /** Installs the timing repaint manager; call once on the EDT. */
+        void install() {
+            RepaintManager.setCurrentManager(new RepaintManager() {
+                @Override
+                public void paintDirtyRegions() {
+                    long start = System.nanoTime();
+                    super.paintDirtyRegions();
+                    record(System.nanoTime() - start);
+                }
+            });
+        }
+
+        private void record(long nanos) {
+            cycles++;
+            totalNanos += nanos;
+            lastNanos = nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        void reset() {
+            cycles = totalNanos = lastNanos = maxNanos = 0;
+        }
+
+        String summary() {
+            return String.format("repaints %d | last %.2f ms | mean %.2f ms | max %.2f ms | cache renders %d",
+                cycles, lastNanos / 1e6, cycles == 0 ? 0 : totalNanos / 1e6 / cycles, maxNanos / 1e6, renders);
+        }
+    }
+}
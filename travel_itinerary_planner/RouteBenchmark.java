@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Route optimization for 30-day trips with 15 stops a day: cold optimization (unique stop
+ * sets, no memo hits) sequentially and with days routed in parallel, the memoized path,
+ * and how far 2-opt/Or-opt shorten the nearest-neighbour seed and the unrouted order.
+ */
+public class RouteBenchmark {
+    private static final int DAYS = 30;
+    private static final int STOPS = 15;
+
+    public static void main(String[] args) throws IOException {
+        int cities = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        // Each city gets enough located activities per category that 30 consecutive days rarely repeat a set
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder();
+        for (int c = 0; c < cities; c++) {
+            double lat = -50 + random.nextDouble() * 100, lon = -180 + random.nextDouble() * 360;
+            for (String category : ActivityCatalog.CATEGORIES) {
+                for (int i = 0; i < 31; i++) {
+                    csv.append("Town ").append(c).append(',').append(category).append(',')
+                       .append(category).append(' ').append(c).append('-').append(i).append(',')
+                       .append(String.format(Locale.ROOT, "%.5f,%.5f",
+                           lat + random.nextGaussian() * 0.05, lon + random.nextGaussian() * 0.05))
+                       .append('\n');
+                }
+            }
+        }
+        ActivityCatalog catalog = ActivityCatalog.read(new StringReader(csv.toString()));
+        // 10 preference categories plus the evening slot; pad to 15 stops with repeated categories
+        int[][] days = new int[cities * DAYS][];
+        int[] evenings = new int[days.length];
+        for (int c = 0; c < cities; c++) {
+            ActivityCatalog.Selection selection = catalog.select("Town " + c, 0x3FF);
+            for (int d = 1; d <= DAYS; d++) {
+                int[] ids = new int[STOPS];
+                for (int s = 0; s < STOPS; s++) ids[s] = selection.activityId(s % selection.slotCount(), d + s / selection.slotCount());
+                days[c * DAYS + d - 1] = ids;
+                evenings[c * DAYS + d - 1] = selection.eveningId(d);
+            }
+        }
+
+        Bench.header("Route optimization, " + DAYS + " days x " + STOPS + " stops, " + cities + " trips");
+        LongSupplier sequential = () -> {
+            RouteOptimizer routes = new RouteOptimizer(catalog); // fresh memo, every day is a cold solve
+            long n = 0;
+            for (int i = 0; i < days.length; i++) n += (long) routes.route(town(i), days[i], evenings[i]).km();
+            return n;
+        };
+        LongSupplier parallel = () -> {
+            RouteOptimizer routes = new RouteOptimizer(catalog);
+            return ForkJoinPool.commonPool().submit(() -> IntStream.range(0, days.length).parallel()
+                .mapToLong(i -> (long) routes.route(town(i), days[i], evenings[i]).km()).sum()).join();
+        };
+        double seq = Bench.throughput("cold, sequential (days)", 5, 5, days.length, sequential);
+        double par = Bench.throughput("cold, fork-join (days)", 5, 5, days.length, parallel);
+        System.out.printf("parallel speedup: %.2fx on %d cores%n", par / seq, Runtime.getRuntime().availableProcessors());
+
+        RouteOptimizer warm = new RouteOptimizer(catalog);
+        for (int i = 0; i < DAYS; i++) warm.route(town(i), days[i], evenings[i]);
+        Bench.nanosPerOp("memoized 30-day trip", 1_000, 10_000, () -> {
+            long n = 0;
+            for (int i = 0; i < DAYS; i++) n += (long) warm.route(town(i), days[i], evenings[i]).km();
+            return n;
+        });
+
+        // Quality: optimized km against the unrouted order and the nearest-neighbour seed alone
+        RouteOptimizer seedOnly = new RouteOptimizer(catalog, DistanceService.bundled(), 0);
+        double optimized = 0, seeded = 0, unrouted = 0;
+        for (int i = 0; i < days.length; i++) {
+            optimized += warm.route(town(i), days[i], evenings[i]).km();
+            seeded += seedOnly.route(town(i), days[i], evenings[i]).km();
+            unrouted += pathKm(catalog, days[i], evenings[i]);
+        }
+        System.out.printf("mean km/day: unrouted %.2f, nearest neighbour %.2f, 2-opt + Or-opt %.2f%n",
+            unrouted / days.length, seeded / days.length, optimized / days.length);
+    }
+
+    private static String town(int dayIndex) {
+        return "Town " + dayIndex / DAYS;
+    }
+
+    // Catalog order, evening last; equirectangular like the optimizer
+    private static double pathKm(ActivityCatalog catalog, int[] ids, int evening) {
+        double km = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int a = ids[i], b = i + 1 < ids.length ? ids[i + 1] : evening;
+            double lat = Math.toRadians((catalog.latitude(a) + catalog.latitude(b)) / 2);
+            double dx = Math.toRadians(catalog.longitude(b) - catalog.longitude(a)) * Math.cos(lat);
+            double dy = Math.toRadians(catalog.latitude(b) - catalog.latitude(a));
+            km += 6371.0088 * Math.hypot(dx, dy);
+        }
+        return km;
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders one day's stops to keep travel short. Stops are projected onto a local plane from
+ * their catalog coordinates; a day with any stop the catalog cannot place (generic fallback
+ * activities, unknown cities) is not routed at all, since a distance made up for it would be
+ * printed as if it were real. The evening venue is the fixed end of the route and the start
+ * is free. A nearest-neighbour seed is improved by 2-opt and Or-opt passes until no
+ * move helps or the per-day time budget runs out.
+ *
+ * <p>Within a city every transport mode moves at a constant speed, so the shortest route is
+ * also the fastest one for each mode; the optimizer therefore minimizes kilometres. Routes
+ * are memoized by (city, activity set, evening) in a bounded LRU, so days that repeat a
+ * combination as the catalog rotates cost one lookup. Instances are safe to share across threads.
+ */
+public final class RouteOptimizer {
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double EPSILON = 1e-9;
+    private static final int CACHE_SIZE = 4096;
+
+    private final ActivityCatalog catalog;
+    private final DistanceService cities;
+    private final long budgetNanos;
+    private final Map<Key, Route> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Route> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public RouteOptimizer(ActivityCatalog catalog) {
+        this(catalog, DistanceService.bundled(), DEFAULT_BUDGET_NANOS);
+    }
+
+    public RouteOptimizer(ActivityCatalog catalog, DistanceService cities, long budgetNanos) {
+        this.catalog = catalog;
+        this.cities = cities;
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Daytime activity ids in visiting order (do not modify); the evening venue follows the last one.
+     * {@code km} is NaN when the day could not be routed.
+     */
+    public record Route(int[] order, double km) {
+        public boolean isRouted() {
+            return !Double.isNaN(km);
+        }
+    }
+
+    private record Key(String city, int evening, int[] ids) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.evening == evening && k.city.equals(city) && Arrays.equals(k.ids, ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return (city.hashCode() * 31 + evening) * 31 + Arrays.hashCode(ids);
+        }
+    }
+
+    /**
+     * Best order found for {@code activityIds} ending at {@code eveningId}; the input order does not matter.
+     * When a stop has no catalog coordinates the ids come back in their given order with NaN km.
+     */
+    public Route route(String city, int[] activityIds, int eveningId) {
+        if (!catalog.hasLocation(eveningId)) return new Route(activityIds.clone(), Double.NaN);
+        for (int id : activityIds) {
+            if (!catalog.hasLocation(id)) return new Route(activityIds.clone(), Double.NaN);
+        }
+        int[] ids = activityIds.clone();
+        Arrays.sort(ids); // the memo key and the search both see the set, not the slot order
+        Key key = new Key(DistanceService.normalize(city), eveningId, ids);
+        synchronized (cache) {
+            Route cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        Route route = optimize(key.city(), ids, eveningId);
+        synchronized (cache) {
+            cache.put(key, route);
+        }
+        return route;
+    }
+
+    private Route optimize(String city, int[] ids, int eveningId) {
+        int n = ids.length + 1;
+        // Point 0 is the evening venue, 1..n-1 the daytime stops
+        int[] points = new int[n];
+        points[0] = eveningId;
+        System.arraycopy(ids, 0, points, 1, n - 1);
+        // Origin of the plane: the city centre, or the evening venue in a city the table lacks
+        int cityId = cities.idOf(city);
+        double lat0 = cityId >= 0 ? cities.latitude(cityId) : catalog.latitude(eveningId);
+        double lon0 = cityId >= 0 ? cities.longitude(cityId) : catalog.longitude(eveningId);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = EARTH_RADIUS_KM * Math.toRadians(catalog.longitude(points[i]) - lon0) * Math.cos(Math.toRadians(lat0));
+            y[i] = EARTH_RADIUS_KM * Math.toRadians(catalog.latitude(points[i]) - lat0);
+        }
+        double[] dist = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                dist[i * n + j] = d;
+                dist[j * n + i] = d;
+            }
+        }
+
+        // The tour is built backwards from the evening venue, so its fixed end is index 0
+        int[] tour = nearestNeighbour(dist, n);
+        long deadline = System.nanoTime() + budgetNanos;
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt(tour, dist, n) | orOpt(tour, dist, n);
+        }
+
+        int[] order = new int[n - 1];
+        for (int i = 1; i < n; i++) order[n - 1 - i] = ids[tour[i] - 1];
+        return new Route(order, length(tour, dist, n));
+    }
+
+    private static int[] nearestNeighbour(double[] dist, int n) {
+        int[] tour = new int[n];
+        boolean[] used = new boolean[n];
+        used[0] = true;
+        for (int pos = 1; pos < n; pos++) {
+            int from = tour[pos - 1];
+            int best = -1;
+            for (int j = 1; j < n; j++) {
+                if (!used[j] && (best < 0 || dist[from * n + j] < dist[from * n + best])) best = j;
+            }
+            tour[pos] = best;
+            used[best] = true;
+        }
+        return tour;
+    }
+
+    // d(a, b) where b == -1 means past the open end of the tour
+    private static double d(double[] dist, int n, int a, int b) {
+        return b < 0 ? 0 : dist[a * n + b];
+    }
+
+    /** First-improvement 2-opt over the open path; position 0 stays fixed. */
+    private static boolean twoOpt(int[] tour, double[] dist, int n) {
+        boolean improved = false;
+        for (int i = 1; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int a = tour[i - 1], b = tour[i], c = tour[j], e = j + 1 < n ? tour[j + 1] : -1;
+                double delta = d(dist, n, a, c) - d(dist, n, a, b) + d(dist, n, b, e) - d(dist, n, c, e);
+                if (delta < -EPSILON) {
+                    reverse(tour, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /** Moves segments of one to three stops, optionally reversed, to a cheaper gap. */
+    private static boolean orOpt(int[] tour, double[] dist, int n) {
+        boolean improved = false;
+        for (int len = 1; len <= 3; len++) {
+            for (int i = 1; i + len <= n; i++) {
+                int first = tour[i], last = tour[i + len - 1];
+                int prev = tour[i - 1], next = i + len < n ? tour[i + len] : -1;
+                double gain = d(dist, n, prev, first) + d(dist, n, last, next) - d(dist, n, prev, next);
+                for (int k = 0; k < n; k++) {
+                    if (k >= i - 1 && k < i + len) continue; // gap touches the segment
+                    int p = tour[k], q = k + 1 < n ? tour[k + 1] : -1;
+                    double forward = d(dist, n, p, first) + d(dist, n, last, q) - d(dist, n, p, q);
+                    double reversed = d(dist, n, p, last) + d(dist, n, first, q) - d(dist, n, p, q);
+                    double cost = Math.min(forward, reversed);
+                    if (cost - gain < -EPSILON) {
+                        move(tour, i, len, k, reversed < forward);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static void reverse(int[] tour, int i, int j) {
+        for (; i < j; i++, j--) {
+            int t = tour[i];
+            tour[i] = tour[j];
+            tour[j] = t;
+        }
+    }
+
+    // Moves tour[i, i + len) so it follows the stop currently at position k
+    private static void move(int[] tour, int i, int len, int k, boolean reversed) {
+        int[] segment = Arrays.copyOfRange(tour, i, i + len);
+        if (reversed) reverse(segment, 0, len - 1);
+        if (k < i) {
+            System.arraycopy(tour, k + 1, tour, k + 1 + len, i - k - 1);
+            System.arraycopy(segment, 0, tour, k + 1, len);
+        } else {
+            System.arraycopy(tour, i + len, tour, i, k - i - len + 1);
+            System.arraycopy(segment, 0, tour, k - len + 1, len);
+        }
+    }
+
+    private static double length(int[] tour, double[] dist, int n) {
+        double km = 0;
+        for (int i = 1; i < n; i++) km += dist[tour[i - 1] * n + tour[i]];
+        return km;
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link ItinerarySearch} over a generated directory of saved itineraries (one in five an
+ * archive, spread over per-city folders): sequential against parallel build, postings size,
+ * query latency for typical searches, and how long a saved file takes to become searchable,
+ * both through {@link ItinerarySearch#refresh} directly and through the directory watcher.
+ * The file count is the first argument (default 20000).
+ */
+public class SearchBenchmark {
+    private static final List<String> CITIES = List.of("Paris", "London", "Tokyo", "Delhi", "Mumbai", "Goa", "Jaipur");
+    private static final List<String> QUERIES = List.of("paris", "louvre", "tokyo museum", "goa beach 5 days",
+        "street food delhi", "public transport", "days:7", "mus", "jaipur fort bicy");
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path dir = Files.createTempDirectory("search-bench");
+        try {
+            long t0 = System.nanoTime();
+            generate(dir, files);
+            System.out.printf("generated %d itineraries in %.1f s%n", files, (System.nanoTime() - t0) / 1e9);
+
+            Bench.header("Index build, " + files + " files");
+            build(dir, false);
+            build(dir, true);
+            build(dir, false);
+            ItinerarySearch index = build(dir, true);
+            long[] footprint = index.postingsFootprint();
+            System.out.printf("%d terms, %d postings in %d bytes (%.2f bytes/posting, %d as int pairs)%n",
+                index.termCount(), footprint[0], footprint[1], (double) footprint[1] / footprint[0], footprint[0] * 8);
+
+            Bench.header("Query latency, top 20 of " + index.size());
+            for (String query : QUERIES) {
+                List<ItinerarySearch.Hit> hits = index.search(query, 20);
+                Bench.nanosPerOp(String.format("%-20s (%d hits)", "\"" + query + "\"", hits.size()), 200, 2000,
+                    () -> index.search(query, 20).size());
+            }
+
+            Bench.header("Incremental update");
+            Path target = Files.list(dir.resolve("paris")).filter(Files::isRegularFile).sorted().findFirst().orElseThrow();
+            Bench.nanosPerOp("rewrite + refresh one file", 20, 200, new java.util.function.LongSupplier() {
+                int round;
+                public long getAsLong() {
+                    try {
+                        write(target, marked("Zyzzyva" + (round++ % 2)));
+                        index.refresh(List.of(target));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return index.size();
+                }
+            });
+            CountDownLatch applied = new CountDownLatch(1);
+            index.watch(applied::countDown);
+            long start = System.nanoTime();
+            write(target, marked("Quokka"));
+            boolean seen = applied.await(10, TimeUnit.SECONDS) && !index.search("quokka", 1).isEmpty();
+            System.out.printf("saved file searchable through the watcher after %.0f ms (found: %b, includes %d ms settle)%n",
+                (System.nanoTime() - start) / 1e6, seen, 200);
+            index.close();
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static ItinerarySearch build(Path dir, boolean parallel) throws IOException {
+        long start = System.nanoTime();
+        ItinerarySearch index = ItinerarySearch.build(dir, parallel);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-48s %10.2f s %14.0f files/s%n", parallel ? "parallel build" : "sequential build",
+            seconds, index.size() / seconds);
+        return index;
+    }
+
+    private static void generate(Path dir, int files) throws IOException {
+        ItineraryEngine engine = new ItineraryEngine(ActivityCatalog.bundled(), ForkJoinPool.commonPool());
+        Random random = new Random(19);
+        for (String city : CITIES) Files.createDirectories(dir.resolve(city.toLowerCase()));
+        for (int i = 0; i < files; i++) {
+            String city = CITIES.get(random.nextInt(CITIES.size()));
+            ItineraryRequest request = new ItineraryRequest(city, 2 + random.nextInt(13), 1 + random.nextInt(31),
+                random.nextInt(32), ItineraryRequest.TRANSPORT_MODES.get(random.nextInt(ItineraryRequest.TRANSPORT_MODES.size())));
+            String name = String.format("trip-%06d", i) + (i % 5 == 0 ? ItineraryArchive.EXTENSION : ".txt");
+            write(dir.resolve(city.toLowerCase()).resolve(name), engine.generate(request));
+        }
+    }
+
+    private static Itinerary marked(String word) {
+        return new Itinerary("Paris", "Walking", List.of(new DayPlan(1, List.of(word + " Gallery"), "Seine Walk")));
+    }
+
+    private static void write(Path path, Itinerary itinerary) throws IOException {
+        if (ItineraryArchive.isArchive(path)) {
+            ItineraryArchive.write(itinerary, path);
+        } else {
+            Files.writeString(path, itinerary.toText());
+        }
+    }
+}
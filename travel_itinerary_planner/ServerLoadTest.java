@@ -0,0 +1,94 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for PlannerServer: keeps N requests in flight against a mix of /itinerary,
+ * /budget and /tips, and reports throughput, p50/p99/max latency of successful requests
+ * and how many were shed with 503. Starts an in-process server unless {@code --url=} is given.
+ *
+ * <pre>java ServerLoadTest [--url=http://host:8080] [--requests=20000] [--concurrency=64,512,2000]</pre>
+ */
+public class ServerLoadTest {
+    private static final String[] PATHS = {
+        "/itinerary?destination=Paris&days=5&transport=Walking&attractions=Museums,Cafes&interests=Cultural%20Sites",
+        "/itinerary?destination=Goa&days=3&transport=Car&attractions=Parks,Street%20Food&interests=Adventure,Relaxation",
+        "/budget?source=Delhi&destination=Goa&days=4&transport=Flight&attractions=Museums&interests=Food",
+        "/tips?destination=Tokyo&interests=Food,Shopping&transport=Public%20Transport&k=3",
+    };
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int requests = 20_000;
+        int[] levels = {64, 512, 2000};
+        int maxInFlight = 1024;
+        for (String arg : args) {
+            if (arg.startsWith("--url=")) url = arg.substring(6);
+            else if (arg.startsWith("--requests=")) requests = Integer.parseInt(arg.substring(11));
+            else if (arg.startsWith("--concurrency=")) levels = Arrays.stream(arg.substring(14).split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--max-in-flight=")) maxInFlight = Integer.parseInt(arg.substring(16));
+        }
+        PlannerServer server = null;
+        if (url == null) {
+            System.setProperty("java.awt.headless", "true");
+            server = new PlannerServer(0, 2 * Runtime.getRuntime().availableProcessors(), maxInFlight);
+            server.start();
+            url = "http://localhost:" + server.port();
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Bench.header("PlannerServer load, " + requests + " requests per level, " + url
+            + (server != null ? ", in-process server max in flight " + maxInFlight : ""));
+        run(client, url, 64, Math.min(requests, 2_000), false); // warm-up
+        for (int concurrency : levels) run(client, url, concurrency, requests, true);
+        if (server != null) server.stop();
+    }
+
+    private static void run(HttpClient client, String base, int concurrency, int requests, boolean print) throws InterruptedException {
+        HttpRequest[] prepared = new HttpRequest[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            prepared[i] = HttpRequest.newBuilder(URI.create(base + PATHS[i])).timeout(Duration.ofSeconds(30)).build();
+        }
+        long[] latencies = new long[requests];
+        AtomicInteger ok = new AtomicInteger(), shed = new AtomicInteger(), failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int n = i;
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(prepared[i % prepared.length], HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    if (error != null) {
+                        failed.incrementAndGet();
+                    } else if (response.statusCode() == 200) {
+                        latencies[ok.getAndIncrement()] = System.nanoTime() - sent;
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (!print) return;
+        long[] done = Arrays.copyOf(latencies, ok.get());
+        Arrays.sort(done);
+        System.out.printf("concurrency %5d: %8.0f req/s | p50 %7.2f ms | p99 %7.2f ms | max %7.2f ms | ok %d, 503 %d, failed %d%n",
+            concurrency, requests / seconds, percentile(done, 0.5), percentile(done, 0.99),
+            done.length == 0 ? 0 : done[done.length - 1] / 1e6, ok.get(), shed.get(), failed.get());
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records named startup phases and prints their timings once startup is complete. Times are
+ * measured from process start when the OS reports it, otherwise from the first mark.
+ * With {@code -Dplanner.startupLog=<file>} each launch also appends one CSV line
+ * ({@code timestamp,java version,phase=ms,...}) so time-to-first-frame can be tracked
+ * across releases.
+ */
+final class StartupTimer {
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    // Process start expressed on the nanoTime clock; falls back to class load time
+    private static final long START_NANOS = processStartNanos();
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> offsets = new ArrayList<>();
+    private static boolean reported;
+
+    private StartupTimer() {}
+
+    private static long processStartNanos() {
+        return ProcessHandle.current().info().startInstant()
+            .map(start -> {
+                long ago = Duration.between(start, Instant.now()).toNanos();
+                return ago >= 0 ? ORIGIN_NANOS - ago : ORIGIN_NANOS;
+            })
+            .orElse(ORIGIN_NANOS);
+    }
+
+    /** Marks the end of {@code phase}; later marks of the same phase are ignored. */
+    static synchronized void mark(String phase) {
+        if (reported || phases.contains(phase)) return;
+        phases.add(phase);
+        offsets.add(System.nanoTime() - START_NANOS);
+    }
+
+    /** Prints the phases to stderr and appends them to the startup log if one is configured. Runs once. */
+    static synchronized void report() {
+        if (reported) return;
+        reported = true;
+        StringBuilder csv = new StringBuilder();
+        csv.append(Instant.now()).append(',').append(System.getProperty("java.version"));
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long at = offsets.get(i);
+            System.err.printf(Locale.ROOT, "startup: %-22s %8.1f ms (+%.1f ms)%n", phases.get(i), at / 1e6, (at - previous) / 1e6);
+            csv.append(',').append(phases.get(i).replace(' ', '_')).append('=')
+               .append(String.format(Locale.ROOT, "%.1f", at / 1e6));
+            previous = at;
+        }
+        String log = System.getProperty("planner.startupLog");
+        if (log == null || log.isBlank()) return;
+        try (Writer out = Files.newBufferedWriter(Path.of(log), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(csv.append('\n').toString());
+        } catch (IOException e) {
+            System.err.println("startup: cannot write " + log + ": " + e.getMessage());
+        }
+    }
+}
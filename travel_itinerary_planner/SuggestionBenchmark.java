@@ -0,0 +1,131 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Suggestion latency against a slow fake backend (200 ms +- 50 ms), calling it directly and
+ * through {@link SuggestionService}. Queries follow a Zipf distribution over a few hundred
+ * destination/preference combinations, the way a handful of popular cities dominate real
+ * traffic, with many requests in flight at once so identical queries overlap. Also round-trips
+ * {@link HttpSuggestionProvider} through a local stub server, and checks a timeout.
+ */
+public class SuggestionBenchmark {
+    private static final String[] CITIES = {"Paris", "London", "Tokyo", "New York", "Rome", "Delhi", "Sydney",
+        "Barcelona", "Dubai", "Singapore", "Berlin", "Lisbon", "Prague", "Bangkok", "Istanbul", "Cairo"};
+
+    public static void main(String[] args) throws Exception {
+        int requests = 4_000, concurrency = 64, distinct = 400;
+        TipEngine engine = new TipEngine();
+        SuggestionProvider.Query[] queries = zipfQueries(requests, distinct, 1.1, new Random(42));
+
+        Bench.header("Suggestions, " + requests + " requests, " + concurrency + " in flight, Zipf over " + distinct + " queries");
+        FakeSuggestionProvider direct = new FakeSuggestionProvider(engine, 150, 100);
+        run("provider only", queries, concurrency, direct::suggest);
+        System.out.printf("  provider calls: %d%n", direct.calls());
+
+        FakeSuggestionProvider backing = new FakeSuggestionProvider(engine, 150, 100);
+        SuggestionService service = new SuggestionService(backing, 256, Duration.ofMinutes(10), Duration.ofSeconds(5));
+        run("service (cache + coalescing)", queries, concurrency, service::suggest);
+        System.out.printf("  provider calls: %d%n  %s%n", backing.calls(), service.summary());
+
+        Bench.header("HTTP provider against a local stub");
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/suggest", exchange -> {
+            byte[] body = "{\"model\":\"stub\",\"suggestions\":[\"Book the \\\"Louvre\\\" early.\",\"Walk the Seine\\nat dusk.\",\"Try a bouillon.\",\"extra\"]}"
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        stub.start();
+        try {
+            String base = "http://127.0.0.1:" + stub.getAddress().getPort();
+            SuggestionProvider.Query query = new SuggestionProvider.Query("  Paris ", 3, 0b1, 0b10, "Car", 3);
+            System.out.println("request body: " + HttpSuggestionProvider.body(query));
+            HttpSuggestionProvider http = new HttpSuggestionProvider(URI.create(base + "/suggest"), "test-key", Duration.ofSeconds(2));
+            System.out.println("reply:        " + http.suggest(query).get());
+
+            SuggestionService slow = new SuggestionService(
+                new HttpSuggestionProvider(URI.create(base + "/slow"), null, Duration.ofSeconds(5)), 16, Duration.ofMinutes(1), Duration.ofMillis(300));
+            long start = System.nanoTime();
+            try {
+                slow.suggest(query).join();
+                System.out.println("timeout:      NOT triggered");
+            } catch (RuntimeException e) {
+                System.out.printf("timeout:      %s after %.0f ms%n", e.getCause().getClass().getSimpleName(), (System.nanoTime() - start) / 1e6);
+            }
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    private static void run(String name, SuggestionProvider.Query[] queries, int concurrency,
+                            Function<SuggestionProvider.Query, CompletableFuture<List<String>>> call) throws InterruptedException {
+        Semaphore slots = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        for (SuggestionProvider.Query query : queries) {
+            slots.acquire();
+            long issued = System.nanoTime();
+            call.apply(query).whenComplete((tips, failure) -> {
+                if (failure != null) throw new IllegalStateException(failure);
+                latencies.add(System.nanoTime() - issued);
+                slots.release();
+            });
+        }
+        slots.acquire(concurrency);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-32s %8.0f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms%n", name, queries.length / seconds,
+            percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        return sorted[Math.max(0, (int) Math.ceil(q * sorted.length) - 1)];
+    }
+
+    /** {@code count} queries whose ranks among {@code distinct} combinations follow Zipf({@code s}). */
+    private static SuggestionProvider.Query[] zipfQueries(int count, int distinct, double s, Random random) {
+        double[] cumulative = new double[distinct];
+        double total = 0;
+        for (int rank = 0; rank < distinct; rank++) {
+            total += 1 / Math.pow(rank + 1, s);
+            cumulative[rank] = total;
+        }
+        SuggestionProvider.Query[] out = new SuggestionProvider.Query[count];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (rank < 0) rank = -rank - 1;
+            out[i] = query(rank);
+        }
+        return out;
+    }
+
+    private static SuggestionProvider.Query query(int rank) {
+        String mode = ItineraryRequest.TRANSPORT_MODES.get(rank % ItineraryRequest.TRANSPORT_MODES.size());
+        return new SuggestionProvider.Query(CITIES[rank % CITIES.length], 1 + rank / CITIES.length % 7,
+            (rank * 7) & 0x1F, (rank * 13) & 0x1F, mode, 3);
+    }
+}
@@ -0,0 +1,26 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A source of trip suggestions for the "Get GPT Suggestions" button: the local {@link TipEngine},
+ * a remote model behind {@link HttpSuggestionProvider}, or {@link FakeSuggestionProvider} in
+ * benchmarks. Calls are asynchronous; {@link SuggestionService} adds timeouts, coalescing and caching.
+ */
+public interface SuggestionProvider {
+    /**
+     * What suggestions are asked for. The destination is normalized so "  Paris" and "paris" share
+     * a cache entry; equal queries are coalesced and cached together.
+     */
+    record Query(String destination, int days, int attractionMask, int interestMask, String transportMode, int count) {
+        public Query {
+            destination = destination == null ? "" : DistanceService.normalize(destination);
+            if (count < 1) throw new IllegalArgumentException("count must be positive: " + count);
+        }
+    }
+
+    /** Completes with at most {@code query.count()} suggestions, or exceptionally when the backend fails. */
+    CompletableFuture<List<String>> suggest(Query query);
+
+    /** Short label for status messages and benchmark output. */
+    String name();
+}
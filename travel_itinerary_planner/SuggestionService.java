@@ -0,0 +1,159 @@
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Front for a {@link SuggestionProvider}: answers repeat queries from a TTL+LRU cache, shares
+ * one provider call between identical queries that are already in flight, and bounds every
+ * call with a timeout. Only successful answers are cached, so a failure is retried on the
+ * next request.
+ */
+public final class SuggestionService {
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final long DEFAULT_TTL_SECONDS = 600;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private record Entry(List<String> suggestions, long expiresAt) {}
+
+    private final SuggestionProvider provider;
+    private final long ttlNanos;
+    private final long timeoutMillis;
+    private final Map<SuggestionProvider.Query, Entry> cache;
+    private final ConcurrentHashMap<SuggestionProvider.Query, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public SuggestionService(SuggestionProvider provider, int cacheSize, Duration ttl, Duration timeout) {
+        this.provider = provider;
+        this.ttlNanos = ttl.toNanos();
+        this.timeoutMillis = timeout.toMillis();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SuggestionProvider.Query, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * The provider picked by system properties: {@code planner.suggestions.url} (with the
+     * {@code PLANNER_SUGGESTIONS_API_KEY} environment variable as its key), else
+     * {@code planner.suggestions.fakeLatencyMs}, else the local tips.
+     * {@code planner.suggestions.timeoutMs} and {@code planner.suggestions.ttlSeconds} tune the service.
+     */
+    public static SuggestionService fromSystemProperties(TipEngine tips) {
+        Duration timeout = Duration.ofMillis(Long.getLong("planner.suggestions.timeoutMs", DEFAULT_TIMEOUT_MILLIS));
+        Duration ttl = Duration.ofSeconds(Long.getLong("planner.suggestions.ttlSeconds", DEFAULT_TTL_SECONDS));
+        String url = System.getProperty("planner.suggestions.url");
+        SuggestionProvider provider;
+        if (url != null && !url.isBlank()) {
+            provider = new HttpSuggestionProvider(URI.create(url), System.getenv("PLANNER_SUGGESTIONS_API_KEY"), timeout);
+        } else if (Long.getLong("planner.suggestions.fakeLatencyMs") != null) {
+            long latency = Long.getLong("planner.suggestions.fakeLatencyMs");
+            provider = new FakeSuggestionProvider(tips, latency, latency / 4);
+        } else {
+            provider = new TipSuggestionProvider(tips);
+        }
+        return new SuggestionService(provider, DEFAULT_CACHE_SIZE, ttl, timeout);
+    }
+
+    public SuggestionProvider provider() {
+        return provider;
+    }
+
+    /**
+     * Suggestions for {@code query}. A cache hit completes immediately; otherwise the caller gets
+     * its own view of the shared provider call, so cancelling or timing out one caller never
+     * affects the others.
+     */
+    public CompletableFuture<List<String>> suggest(SuggestionProvider.Query query) {
+        List<String> cached = lookup(query);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<List<String>> created = new CompletableFuture<>();
+        CompletableFuture<List<String>> shared = inFlight.putIfAbsent(query, created);
+        if (shared != null) {
+            coalesced.incrementAndGet();
+            return shared.copy();
+        }
+        misses.incrementAndGet();
+        // The provider is called outside the map so a synchronous answer cannot re-enter it
+        created.whenComplete((suggestions, failure) -> {
+            if (failure == null) {
+                store(query, suggestions);
+            } else {
+                failures.incrementAndGet();
+            }
+            inFlight.remove(query, created);
+        });
+        try {
+            provider.suggest(query)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((suggestions, failure) -> {
+                    if (failure == null) created.complete(List.copyOf(suggestions));
+                    else created.completeExceptionally(failure);
+                });
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    private List<String> lookup(SuggestionProvider.Query query) {
+        synchronized (cache) {
+            Entry entry = cache.get(query);
+            if (entry == null) return null;
+            if (entry.expiresAt() - System.nanoTime() <= 0) {
+                cache.remove(query);
+                return null;
+            }
+            return entry.suggestions();
+        }
+    }
+
+    private void store(SuggestionProvider.Query query, List<String> suggestions) {
+        synchronized (cache) {
+            cache.put(query, new Entry(suggestions, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    public String summary() {
+        long h = hits(), m = misses(), c = coalesced();
+        long total = h + m + c;
+        return String.format(Locale.ROOT, "%s: %d requests, %.1f%% cache hits, %d coalesced, %d provider calls, %d failures",
+            provider.name(), total, total == 0 ? 0.0 : 100.0 * h / total, c, m, failures());
+    }
+}
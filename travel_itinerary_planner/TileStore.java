@@ -0,0 +1,168 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Encoded map tiles by zoom, column and row (the usual slippy-map z/x/y scheme). Two layouts:
+ * a directory of {@code <z>/<x>/<y>.png} files as written by most tile downloaders, and a
+ * single packed file opened as one read-only memory map, which avoids a file open per tile
+ * and lets the OS page cache serve repeat reads.
+ *
+ * <p>Packed layout: a 16-byte header (magic, version, tile count, reserved) then one 16-byte
+ * index entry per tile (key, data offset, data length) sorted by key, then the tile bytes.
+ * The key is {@code z << 58 | x << 29 | y}. {@link #pack} converts a directory.
+ */
+interface TileStore extends Closeable {
+    int MAGIC = 0x50544C53; // "PTLS"
+    int VERSION = 1;
+    int HEADER_BYTES = 16;
+    int ENTRY_BYTES = 16;
+    String PACKED_EXTENSION = ".tiles";
+
+    /** The encoded tile, or null when the store has none for that position. */
+    byte[] read(int zoom, int x, int y) throws IOException;
+
+    static long key(int zoom, int x, int y) {
+        return (long) zoom << 58 | (long) x << 29 | y;
+    }
+
+    /** A packed file when {@code path} is a regular file, otherwise a tile directory. */
+    static TileStore open(Path path) throws IOException {
+        if (Files.isDirectory(path)) return new Directory(path);
+        if (Files.isRegularFile(path)) return new Packed(path);
+        throw new NoSuchFileException(path.toString());
+    }
+
+    /**
+     * Writes every {@code <z>/<x>/<y>.png} under {@code directory} into one packed file, through
+     * a part file that only replaces {@code target} once complete.
+     */
+    static int pack(Path directory, Path target) throws IOException {
+        List<long[]> tiles = new ArrayList<>(); // key, then index into files
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory, 3)) {
+            for (Path file : (Iterable<Path>) walk::iterator) {
+                Path relative = directory.relativize(file);
+                String name = file.getFileName().toString();
+                if (relative.getNameCount() != 3 || !name.endsWith(".png")) continue;
+                try {
+                    int z = Integer.parseInt(relative.getName(0).toString());
+                    int x = Integer.parseInt(relative.getName(1).toString());
+                    int y = Integer.parseInt(name.substring(0, name.length() - 4));
+                    tiles.add(new long[] {key(z, x, y), files.size()});
+                    files.add(file);
+                } catch (NumberFormatException notATile) {
+                    // Stray files in the tree are skipped
+                }
+            }
+        }
+        tiles.sort((a, b) -> Long.compare(a[0], b[0]));
+        Path packed = ItineraryIO.saveTarget(target);
+        Path tmp = ItineraryIO.createPartFile(packed);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(tiles.size());
+                out.writeInt(0);
+                long offset = HEADER_BYTES + (long) ENTRY_BYTES * tiles.size();
+                for (long[] tile : tiles) {
+                    long length = Files.size(files.get((int) tile[1]));
+                    out.writeLong(tile[0]);
+                    out.writeInt((int) offset);
+                    out.writeInt((int) length);
+                    offset += length;
+                    if (offset > Integer.MAX_VALUE) throw new IOException("packed tile file would exceed 2 GB");
+                }
+                for (long[] tile : tiles) Files.copy(files.get((int) tile[1]), out);
+            }
+            ItineraryIO.replaceWith(tmp, packed);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return tiles.size();
+    }
+
+    final class Directory implements TileStore {
+        private final Path root;
+
+        Directory(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public byte[] read(int zoom, int x, int y) throws IOException {
+            try {
+                return Files.readAllBytes(root.resolve(Integer.toString(zoom)).resolve(Integer.toString(x)).resolve(y + ".png"));
+            } catch (NoSuchFileException missing) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    final class Packed implements TileStore {
+        private final MappedByteBuffer map;
+        private final int count;
+
+        Packed(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) throw new IOException(file + " is larger than 2 GB");
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) throw new IOException(file + " is not a packed tile file");
+            if (map.getInt(4) != VERSION) throw new IOException(file + ": unsupported tile file version " + map.getInt(4));
+            count = map.getInt(8);
+            if (count < 0 || HEADER_BYTES + (long) ENTRY_BYTES * count > map.capacity()) {
+                throw new IOException(file + ": truncated tile index");
+            }
+        }
+
+        @Override
+        public byte[] read(int zoom, int x, int y) throws IOException {
+            long key = key(zoom, x, y);
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int entry = HEADER_BYTES + mid * ENTRY_BYTES;
+                long k = map.getLong(entry);
+                if (k < key) {
+                    lo = mid + 1;
+                } else if (k > key) {
+                    hi = mid - 1;
+                } else {
+                    int offset = map.getInt(entry + 8), length = map.getInt(entry + 12);
+                    if (offset < 0 || length < 0 || (long) offset + length > map.capacity()) {
+                        throw new IOException("corrupt tile entry for " + zoom + "/" + x + "/" + y);
+                    }
+                    byte[] bytes = new byte[length];
+                    // Absolute-position bulk get keeps the shared buffer's position untouched across threads
+                    map.get(offset, bytes);
+                    return bytes;
+                }
+            }
+            return null;
+        }
+
+        int size() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // The mapping is released with the buffer; nothing else is held open
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel over integer ticks: five levels of 64 slots, where a slot at level
+ * L spans 64^L ticks, so with one-second ticks the wheel reaches about 34 years ahead (later
+ * timers wait in an overflow list). Scheduling and cancelling are O(1); {@link #advance} only
+ * visits slots that hold timers, using a 64-bit occupancy mask per level, so jumping a long idle
+ * gap costs nothing. Timers on a higher level are cascaded down when the clock reaches their
+ * slot.
+ *
+ * <p>Not thread-safe; {@link ReminderScheduler} guards it with its own lock.
+ */
+final class TimerWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 5;
+    private static final int OVERFLOW = LEVELS;
+    public static final long NONE = Long.MAX_VALUE;
+
+    /** A scheduled value; pass it to {@link #cancel} to remove it. */
+    static final class Timer<T> {
+        final long tick;
+        final T value;
+        private Timer<T> prev, next;
+        private int level = -1, slot;
+
+        private Timer(long tick, T value) {
+            this.tick = tick;
+            this.value = value;
+        }
+
+        boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    // heads[level][slot]; the overflow list is heads[OVERFLOW][0]
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Timer<T>[][] heads = new Timer[LEVELS + 1][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private long current;
+    private int size;
+
+    TimerWheel(long startTick) {
+        current = startTick;
+    }
+
+    long currentTick() {
+        return current;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Schedules {@code value} for {@code tick}; a tick at or before the current one expires on the next advance. */
+    Timer<T> schedule(long tick, T value) {
+        Timer<T> timer = new Timer<>(tick, value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /** Drops every scheduled timer without unlinking them one by one, so none of them may be cancelled afterwards. */
+    void clear() {
+        for (Timer<T>[] level : heads) Arrays.fill(level, null);
+        Arrays.fill(occupied, 0);
+        size = 0;
+    }
+
+    boolean cancel(Timer<T> timer) {
+        if (!timer.isScheduled()) return false;
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    private void place(Timer<T> timer) {
+        // Level = which 6-bit group is the highest one where the due tick differs from now
+        long due = Math.max(timer.tick, current);
+        long diff = due ^ current;
+        int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / BITS;
+        if (level >= LEVELS) {
+            link(timer, OVERFLOW, 0);
+        } else {
+            link(timer, level, (int) (due >>> (BITS * level)) & (SLOTS - 1));
+        }
+    }
+
+    private void link(Timer<T> timer, int level, int slot) {
+        Timer<T> head = heads[level][slot];
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) head.prev = timer;
+        heads[level][slot] = timer;
+        if (level < LEVELS) occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            heads[timer.level][timer.slot] = timer.next;
+            if (timer.next == null && timer.level < LEVELS) occupied[timer.level] &= ~(1L << timer.slot);
+        }
+        if (timer.next != null) timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+        timer.level = -1;
+    }
+
+    private Timer<T> takeSlot(int level, int slot) {
+        Timer<T> list = heads[level][slot];
+        heads[level][slot] = null;
+        if (level < LEVELS) occupied[level] &= ~(1L << slot);
+        return list;
+    }
+
+    /**
+     * The next tick at which {@link #advance} has work: an expiry on the lowest level or a
+     * cascade from a higher one. {@link #NONE} when nothing is scheduled.
+     */
+    long nextTick() {
+        if (size == 0) return NONE;
+        long best = NONE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            int at = (int) (current >>> shift) & (SLOTS - 1);
+            // Level 0 fires in the current slot too; higher levels only hold later slots
+            long mask = level == 0 ? occupied[0] & (-1L << at) : occupied[level] & (at == SLOTS - 1 ? 0 : -1L << (at + 1));
+            if (mask == 0) continue;
+            long base = current >>> (shift + BITS) << (shift + BITS);
+            long tick = base | (long) Long.numberOfTrailingZeros(mask) << shift;
+            best = Math.min(best, tick);
+        }
+        if (best == NONE && heads[OVERFLOW][0] != null) {
+            int shift = BITS * LEVELS;
+            best = ((current >>> shift) + 1) << shift;
+        }
+        return best;
+    }
+
+    /**
+     * Moves the clock to {@code now} and returns every value due by then, in tick order. Timers
+     * that were already due when scheduled come first, in no particular order.
+     */
+    List<T> advance(long now) {
+        List<T> expired = new ArrayList<>();
+        expireCurrent(expired);
+        while (current < now) {
+            long next = nextTick();
+            if (next > now) {
+                current = now;
+                break;
+            }
+            current = next;
+            if ((current & ((1L << (BITS * LEVELS)) - 1)) == 0) cascade(takeSlot(OVERFLOW, 0));
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                int shift = BITS * level;
+                if ((current & ((1L << shift) - 1)) != 0) continue;
+                cascade(takeSlot(level, (int) (current >>> shift) & (SLOTS - 1)));
+            }
+            expireCurrent(expired);
+        }
+        return expired;
+    }
+
+    private void cascade(Timer<T> list) {
+        while (list != null) {
+            Timer<T> next = list.next;
+            list.prev = list.next = null;
+            place(list);
+            list = next;
+        }
+    }
+
+    private void expireCurrent(List<T> expired) {
+        Timer<T> timer = takeSlot(0, (int) current & (SLOTS - 1));
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = timer.next = null;
+            timer.level = -1;
+            size--;
+            expired.add(timer.value);
+            timer = next;
+        }
+    }
+}
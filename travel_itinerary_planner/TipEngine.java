@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks travel tips against the selected attractions, interests and transport mode.
+ *
+ * <p>Tags share the bit layout of {@link ItineraryRequest#preferenceMask()} (attractions,
+ * then interests) with transport modes and a general tag above them. Each tag has a
+ * {@link BitSet} of the tips carrying it; a tip scores two points per matched preference,
+ * general tips one base point. Ties rotate by destination so different cities see
+ * different tips. Rankings are cached per (preference bits, destination) in a bounded LRU.
+ */
+public final class TipEngine {
+    private static final int PREFERENCE_TAGS = ItineraryRequest.ATTRACTIONS.size() + ItineraryRequest.INTERESTS.size();
+    private static final int TRANSPORT = PREFERENCE_TAGS;
+    private static final int GENERAL = TRANSPORT + ItineraryRequest.TRANSPORT_MODES.size();
+    private static final int TAG_COUNT = GENERAL + 1;
+
+    // Tag indices, named for readability in the catalog below
+    private static final int MUSEUMS = 0, PARKS = 1, CAFES = 2, STREET_FOOD = 3, FINE_DINING = 4;
+    private static final int FOOD = 5, ADVENTURE = 6, RELAXATION = 7, CULTURAL = 8, SHOPPING = 9;
+    private static final int CAR = TRANSPORT, PUBLIC = TRANSPORT + 1, FLIGHT = TRANSPORT + 2,
+        WALKING = TRANSPORT + 3, BICYCLE = TRANSPORT + 4;
+
+    private static final int CACHE_SIZE = 1024;
+
+    private final String[] tips;
+    private final BitSet[] byTag;
+    private final BitSet general;
+    private final Map<Long, int[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public TipEngine() {
+        List<String> texts = new ArrayList<>();
+        List<Long> tags = new ArrayList<>();
+        tip(texts, tags, "Carry a reusable water bottle to stay hydrated and save money.", GENERAL, WALKING, BICYCLE, ADVENTURE);
+        tip(texts, tags, "Download offline maps for your destination to navigate without internet.", GENERAL, CAR, WALKING, BICYCLE);
+        tip(texts, tags, "Check local customs and dress codes to respect cultural norms.", GENERAL, CULTURAL);
+        tip(texts, tags, "Always have a power bank for your devices during long days out.", GENERAL, ADVENTURE);
+        tip(texts, tags, "Book popular attractions in advance to avoid long queues.", GENERAL, MUSEUMS, CULTURAL);
+        tip(texts, tags, "Try local street food, but ensure it's from reputable vendors.", STREET_FOOD, FOOD);
+        tip(texts, tags, "Keep digital and physical copies of important travel documents.", GENERAL, FLIGHT);
+        tip(texts, tags, "Many museums have a free or discounted day each week - check before you go.", MUSEUMS, CULTURAL);
+        tip(texts, tags, "Rent an audio guide or join a free walking tour for the backstory behind landmarks.", MUSEUMS, CULTURAL, WALKING);
+        tip(texts, tags, "Visit parks early in the morning for cooler weather and fewer crowds.", PARKS, RELAXATION);
+        tip(texts, tags, "Pack a light picnic mat and snacks for afternoons in the park.", PARKS, RELAXATION, FOOD);
+        tip(texts, tags, "Ask baristas for neighbourhood recommendations - they know the hidden spots.", CAFES);
+        tip(texts, tags, "Cafes are great places to recharge devices and plan the rest of your day.", CAFES, RELAXATION);
+        tip(texts, tags, "Follow the longest queue of locals at food stalls - turnover keeps food fresh.", STREET_FOOD, FOOD);
+        tip(texts, tags, "Carry small change for street vendors and night markets.", STREET_FOOD, SHOPPING);
+        tip(texts, tags, "Reserve fine dining tables weeks ahead and check the dress code.", FINE_DINING, FOOD);
+        tip(texts, tags, "Lunch tasting menus at top restaurants often cost far less than dinner.", FINE_DINING, FOOD);
+        tip(texts, tags, "Take a local cooking class to bring a taste of the trip home.", FOOD, CULTURAL);
+        tip(texts, tags, "Check that your travel insurance covers adventure sports before booking.", ADVENTURE);
+        tip(texts, tags, "Book adventure activities with licensed operators and ask about safety gear.", ADVENTURE);
+        tip(texts, tags, "Leave one unplanned afternoon each trip to rest and recharge.", RELAXATION);
+        tip(texts, tags, "Book spa treatments on arrival day to unwind after travel.", RELAXATION, FLIGHT);
+        tip(texts, tags, "Learn a few greetings in the local language - it opens doors.", CULTURAL, GENERAL);
+        tip(texts, tags, "Festivals sell out accommodation early; check the local calendar first.", CULTURAL);
+        tip(texts, tags, "Bargain politely at markets, but fixed-price shops are the norm in malls.", SHOPPING);
+        tip(texts, tags, "Keep receipts for tax refunds on larger purchases abroad.", SHOPPING, FLIGHT);
+        tip(texts, tags, "Leave space in your luggage for souvenirs.", SHOPPING, FLIGHT);
+        tip(texts, tags, "Check parking rules and toll payment options before driving in the city.", CAR);
+        tip(texts, tags, "Start long drives early to beat traffic and arrive before dark.", CAR);
+        tip(texts, tags, "Buy a day pass or transit card - it's usually cheaper than single tickets.", PUBLIC);
+        tip(texts, tags, "Avoid rush hour on public transport when carrying luggage.", PUBLIC);
+        tip(texts, tags, "Web check-in early for better seats and a shorter airport queue.", FLIGHT);
+        tip(texts, tags, "Wear comfortable, broken-in shoes for long walking days.", WALKING, MUSEUMS);
+        tip(texts, tags, "Use city bike-share docks and always lock up at busy spots.", BICYCLE);
+        tip(texts, tags, "Wear a helmet and reflective gear when cycling after dark.", BICYCLE, ADVENTURE);
+
+        this.tips = texts.toArray(new String[0]);
+        this.byTag = new BitSet[TAG_COUNT];
+        for (int t = 0; t < TAG_COUNT; t++) byTag[t] = new BitSet(tips.length);
+        for (int i = 0; i < tips.length; i++) {
+            long mask = tags.get(i);
+            for (int t = 0; t < TAG_COUNT; t++) {
+                if ((mask & (1L << t)) != 0) byTag[t].set(i);
+            }
+        }
+        this.general = byTag[GENERAL];
+    }
+
+    private static void tip(List<String> texts, List<Long> tags, String text, int... tagIds) {
+        long mask = 0;
+        for (int t : tagIds) mask |= 1L << t;
+        texts.add(text);
+        tags.add(mask);
+    }
+
+    public int size() {
+        return tips.length;
+    }
+
+    /** Tag bits for a selection; {@code transportMode} may be null before one is chosen. */
+    public static long preferenceBits(int attractionMask, int interestMask, String transportMode) {
+        long bits = attractionMask | ((long) interestMask << ItineraryRequest.ATTRACTIONS.size());
+        int mode = transportMode == null ? -1 : ItineraryRequest.TRANSPORT_MODES.indexOf(transportMode);
+        if (mode >= 0) bits |= 1L << (TRANSPORT + mode);
+        return bits;
+    }
+
+    /** Up to {@code k} distinct tips, best first. */
+    public List<String> recommend(String destination, long preferenceBits, int k) {
+        int[] ranked = ranking(destination, preferenceBits);
+        List<String> out = new ArrayList<>(Math.min(k, ranked.length));
+        for (int i = 0; i < ranked.length && i < k; i++) out.add(tips[ranked[i]]);
+        return out;
+    }
+
+    public List<String> recommend(ItineraryRequest request, int k) {
+        return recommend(request.destination(),
+            preferenceBits(request.attractionMask(), request.interestMask(), request.transportMode()), k);
+    }
+
+    private int[] ranking(String destination, long preferenceBits) {
+        int seed = destination == null ? 0 : DistanceService.normalize(destination).hashCode() & 0x7fffffff;
+        long key = (preferenceBits << 32) | seed;
+        synchronized (cache) {
+            int[] cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        int[] ranked = rank(preferenceBits, seed);
+        synchronized (cache) {
+            cache.put(key, ranked);
+        }
+        return ranked;
+    }
+
+    // Full order of the catalog; callers take the prefix they need
+    private int[] rank(long preferenceBits, int seed) {
+        int n = tips.length;
+        int[] score = new int[n];
+        for (int i = general.nextSetBit(0); i >= 0; i = general.nextSetBit(i + 1)) score[i]++;
+        for (long bits = preferenceBits; bits != 0; bits &= bits - 1) {
+            BitSet tagged = byTag[Long.numberOfTrailingZeros(bits)];
+            for (int i = tagged.nextSetBit(0); i >= 0; i = tagged.nextSetBit(i + 1)) score[i] += 2;
+        }
+        // Sort by score desc, ties by rotated position; packed into longs to sort primitives
+        long[] keys = new long[n];
+        int rotation = seed % n;
+        for (int i = 0; i < n; i++) {
+            int tie = Math.floorMod(i - rotation, n);
+            keys[i] = ((long) (Integer.MAX_VALUE - score[i]) << 32) | ((long) tie << 16) | i;
+        }
+        Arrays.sort(keys);
+        int[] ranked = new int[n];
+        for (int i = 0; i < n; i++) ranked[i] = (int) (keys[i] & 0xFFFF);
+        return ranked;
+    }
+}
@@ -1,11 +1,35 @@
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.filechooser.FileSystemView;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
 import java.net.URI;
-import java.util.Random;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class TravelItineraryPlannerEnhanced extends JFrame {
     // Constants
@@ -16,18 +40,69 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
 
     private JTextField sourceField, destinationField, budgetTransport, budgetFood, budgetTickets;
     private JTextArea itineraryArea, tipsArea, remindersArea;
-    private JButton generateBtn, saveBtn, loadBtn, remindBtn, estimateBtn, gptBtn, mapBtn;
+    private JButton generateBtn, saveBtn, loadBtn, remindBtn, estimateBtn, gptBtn, mapBtn, sweepBtn, searchBtn;
     private JComboBox<String> daysCombo;
-    private JFileChooser fileChooser;
+    private JFileChooser fileChooser; // built on first use, see fileChooser()
+    private JProgressBar fileProgress;
+    private JButton cancelFileBtn;
+    private SwingWorker<?, ?> fileTask;
     private JCheckBox[] attractionCBs, interestCBs;
     private String transportMode;
     private File remindersFile = new File("reminders.txt");
+    private ReminderStore reminderStore;
+    private ReminderScheduler reminderScheduler;
+    private static final int DUE_SHOWN = 10;
+    private boolean remindersLoading = true;
+    private static final int REMINDERS_SHOWN = 200;
+    // Periods offered by the reminder manager, in days; its last choice lists the newest REMINDERS_LISTED
+    private static final int[] REMINDER_PERIODS = {7, 30, 365};
+    private static final int REMINDERS_LISTED = 1000;
+    private final ItineraryEngine itineraryEngine = new ItineraryEngine();
+    private final TipEngine tipEngine = new TipEngine();
+    private TileStore tileStore;
+    private boolean tileStoreTried;
+    private static final int MAP_DAYS = 400;
+    // Index of saved itineraries, built on first search and kept current by its watcher
+    private ItinerarySearch searchIndex;
+    private SwingWorker<?, ?> searchIndexTask;
+    private Runnable searchRefresh; // re-runs the open search dialog's query after the index changes
+    private static final int SEARCH_HITS = 50;
+    private final SuggestionService suggestionService = SuggestionService.fromSystemProperties(tipEngine);
+    private static final int SUGGESTIONS_SHOWN = 3;
+    // Bumped per click so a slow answer never overwrites a newer one
+    private int suggestionRequest;
+    private JScrollPane itineraryScroll;
+    private ItineraryView itineraryView;
+    private ItineraryDocument itineraryDocument;
+    // What generateItinerary() last planned; null once a loaded file is shown, so hand edits are never re-planned
+    private ItineraryRequest plannedRequest;
+
+    // Longer trips are rendered through the virtualized ItineraryView instead of the text area
+    private static final int VIRTUALIZE_AFTER_DAYS = 365;
+
+    // Repaint timing overlay: F12 toggles it, -Dplanner.paintStats=true shows it at startup
+    private final RenderCache.PaintMeter paintMeter = new RenderCache.PaintMeter();
+
+    // Ctrl+Shift+M writes the action metrics report here; -Dplanner.metricsFile also writes it at exit
+    private static final String METRICS_FILE = "planner-metrics.txt";
+    private JLabel paintStatsLabel;
+    private Timer paintStatsTimer;
 
     // Store custom days if selected
     private int customDays = -1;
 
+    // Set by --exit-after-startup: quit once the first frame is up and reminders are loaded
+    private final boolean exitAfterStartup;
+    private boolean firstPaintSeen;
+
     public TravelItineraryPlannerEnhanced() {
+        this(false);
+    }
+
+    public TravelItineraryPlannerEnhanced(boolean exitAfterStartup) {
+        this.exitAfterStartup = exitAfterStartup;
         setLookAndFeel();
+        StartupTimer.mark("look and feel");
         setTitle("AI-Powered Travel Itinerary Planner");
         setSize(1200, 800);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -37,15 +112,15 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         Color accent = new Color(30, 144, 255);
         Color secondary = new Color(255, 165, 0);
 
+        RenderCache.Gradient background = new RenderCache.Gradient(bg, new Color(200, 220, 255));
         JPanel mainPanel = new JPanel(new BorderLayout(15, 15)) {
             @Override
             protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g;
-                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                GradientPaint gp = new GradientPaint(0, 0, bg, 0, getHeight(), new Color(200, 220, 255));
-                g2d.setPaint(gp);
-                g2d.fillRect(0, 0, getWidth(), getHeight());
+                background.paint(g, this); // covers the whole panel, so no super fill first
+                if (!firstPaintSeen) {
+                    firstPaintSeen = true;
+                    onFirstPaint();
+                }
             }
         };
         mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -104,13 +179,13 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         // Row 2: Attractions
         JPanel row2 = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         row2.setOpaque(false);
-        String[] attractionLabels = {"Museums", "Parks", "Cafes", "Street Food", "Fine Dining"};
+        String[] attractionLabels = ItineraryRequest.ATTRACTIONS.toArray(new String[0]);
         attractionCBs = createCheckBoxes(attractionLabels, row2);
 
         // Row 3: Interests
         JPanel row3 = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
         row3.setOpaque(false);
-        String[] interestLabels = {"Food", "Adventure", "Relaxation", "Cultural Sites", "Shopping"};
+        String[] interestLabels = ItineraryRequest.INTERESTS.toArray(new String[0]);
         interestCBs = createCheckBoxes(interestLabels, row3);
         gptBtn = createStyledButton("Get GPT Suggestions", accent);
         row3.add(gptBtn);
@@ -129,8 +204,11 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
             TitledBorder.DEFAULT_JUSTIFICATION, TitledBorder.DEFAULT_POSITION,
             BUTTON_FONT, accent
         ));
-        JScrollPane scrollPane = new JScrollPane(itineraryArea);
-        scrollPane.setPreferredSize(new Dimension(1150, 300));
+        itineraryView = new ItineraryView();
+        itineraryView.setFont(AREA_FONT);
+        itineraryView.setBorder(itineraryArea.getBorder());
+        itineraryScroll = new JScrollPane(itineraryArea);
+        itineraryScroll.setPreferredSize(new Dimension(1150, 300));
 
         // Button Panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
@@ -140,9 +218,24 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         remindBtn = createStyledButton("Add Reminder", secondary);
         estimateBtn = createStyledButton("Estimate Budget", secondary);
         mapBtn = createStyledButton("View Map", secondary);
-        for (JButton btn : new JButton[]{saveBtn, loadBtn, remindBtn, estimateBtn, mapBtn}) {
+        searchBtn = createStyledButton("Search Saved", secondary);
+        for (JButton btn : new JButton[]{saveBtn, loadBtn, remindBtn, estimateBtn, mapBtn, searchBtn}) {
             buttonPanel.add(btn);
         }
+        fileProgress = new JProgressBar(0, 100);
+        fileProgress.setStringPainted(true);
+        fileProgress.setVisible(false);
+        cancelFileBtn = new JButton("Cancel");
+        cancelFileBtn.setVisible(false);
+        cancelFileBtn.addActionListener(e -> {
+            if (fileTask != null) fileTask.cancel(true);
+        });
+        buttonPanel.add(fileProgress);
+        buttonPanel.add(cancelFileBtn);
+        paintStatsLabel = new JLabel();
+        paintStatsLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        paintStatsLabel.setVisible(false);
+        buttonPanel.add(paintStatsLabel);
 
         // Budget Panel
         JPanel budgetPanel = new JPanel(new GridLayout(4, 2, 10, 10));
@@ -161,6 +254,9 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         budgetPanel.add(budgetFood);
         budgetPanel.add(createStyledLabel("Tickets:"));
         budgetPanel.add(budgetTickets);
+        sweepBtn = createStyledButton("Compare", accent);
+        budgetPanel.add(new JLabel());
+        budgetPanel.add(sweepBtn);
 
         // Tips Area
         tipsArea = new JTextArea(5, 30);
@@ -185,6 +281,12 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
             TitledBorder.DEFAULT_JUSTIFICATION, TitledBorder.DEFAULT_POSITION,
             BUTTON_FONT, accent
         ));
+        JPopupMenu remindersMenu = new JPopupMenu();
+        JMenuItem manageReminders = new JMenuItem("Manage Reminders...");
+        manageReminders.addActionListener(e -> showReminderManager());
+        remindersMenu.add(manageReminders);
+        remindersArea.setComponentPopupMenu(remindersMenu);
+        remindersArea.setToolTipText("Right-click to review or delete reminders");
         JScrollPane remindersScrollPane = new JScrollPane(remindersArea);
 
         // West Panel
@@ -194,13 +296,11 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         westPanel.add(remindersScrollPane);
 
         mainPanel.add(topPanel, BorderLayout.NORTH);
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(itineraryScroll, BorderLayout.CENTER);
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         mainPanel.add(budgetPanel, BorderLayout.EAST);
         mainPanel.add(westPanel, BorderLayout.WEST);
 
-        fileChooser = new JFileChooser();
-
         // Action listeners
         generateBtn.addActionListener(e -> generateItinerary());
         saveBtn.addActionListener(e -> saveToFile());
@@ -208,33 +308,99 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         gptBtn.addActionListener(e -> showGPTSuggestions());
         remindBtn.addActionListener(e -> showReminderDialog());
         estimateBtn.addActionListener(e -> estimateBudget());
+        sweepBtn.addActionListener(e -> showBudgetSweep());
         mapBtn.addActionListener(e -> showMap());
+        searchBtn.addActionListener(e -> showSearch());
+        getRootPane().registerKeyboardAction(e -> showSearch(), KeyStroke.getKeyStroke("ctrl F"),
+            JComponent.WHEN_IN_FOCUSED_WINDOW);
+        getRootPane().registerKeyboardAction(e -> togglePaintStats(), KeyStroke.getKeyStroke("F12"),
+            JComponent.WHEN_IN_FOCUSED_WINDOW);
+        getRootPane().registerKeyboardAction(e -> exportMetrics(), KeyStroke.getKeyStroke("ctrl shift M"),
+            JComponent.WHEN_IN_FOCUSED_WINDOW);
+        if (Boolean.getBoolean("planner.paintStats")) togglePaintStats();
 
-        loadReminders();
         setContentPane(mainPanel);
+        StartupTimer.mark("ui built");
     }
 
     private void setLookAndFeel() {
         try {
-            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
-                if ("Nimbus".equals(info.getName())) {
-                    UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
-            }
+            // Nimbus ships with every JDK; naming it skips scanning the installed look-and-feels
+            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
         } catch (Exception ignored) {}
     }
 
+    // Deferred from the constructor so the window shows before any disk I/O
+    private void onFirstPaint() {
+        StartupTimer.mark("first paint");
+        SwingUtilities.invokeLater(this::loadReminders);
+    }
+
+    private void startupComplete() {
+        StartupTimer.mark("reminders loaded");
+        StartupTimer.report();
+        if (exitAfterStartup) {
+            dispose();
+            System.exit(0);
+        }
+        // JMX and the watchdog load the management classes, so they start once the window is up
+        ForkJoinPool.commonPool().execute(() -> {
+            ActionMetrics metrics = ActionMetrics.get();
+            metrics.startEdtWatchdog();
+            metrics.registerMBean();
+            String exitFile = System.getProperty("planner.metricsFile");
+            if (exitFile != null && !exitFile.isBlank()) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        metrics.exportTo(Path.of(exitFile));
+                    } catch (IOException e) {
+                        System.err.println("metrics: cannot write " + exitFile + ": " + e.getMessage());
+                    }
+                }, "metrics-export"));
+            }
+        });
+    }
+
+    private void exportMetrics() {
+        Path path = Path.of(METRICS_FILE).toAbsolutePath();
+        try {
+            ActionMetrics.get().exportTo(path);
+            JOptionPane.showMessageDialog(this, "Metrics written to " + path);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    /** The chooser scans the home directory when built, so it is only created for the first Save or Load. */
+    private JFileChooser fileChooser() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+            fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Itinerary text (*.txt)", "txt"));
+            fileChooser.addChoosableFileFilter(new FileNameExtensionFilter(
+                "Itinerary archive (*" + ItineraryArchive.EXTENSION + ")", ItineraryArchive.EXTENSION.substring(1)));
+        }
+        return fileChooser;
+    }
+
     private JCheckBox[] createCheckBoxes(String[] labels, JPanel panel) {
         JCheckBox[] boxes = new JCheckBox[labels.length];
         panel.add(createStyledLabel(panel.getComponentCount() == 0 ? "Attractions: " : "Interests: "));
         for (int i = 0; i < labels.length; i++) {
             boxes[i] = new JCheckBox(labels[i]);
+            boxes[i].addItemListener(e -> preferencesChanged());
             panel.add(boxes[i]);
         }
         return boxes;
     }
 
+    private static int selectionMask(JCheckBox[] boxes) {
+        int mask = 0;
+        for (int i = 0; i < boxes.length; i++) {
+            if (boxes[i].isSelected()) mask |= 1 << i;
+        }
+        return mask;
+    }
+
     private int getSelectedDays() {
         if (customDays > 0 && daysCombo.getSelectedIndex() == daysCombo.getItemCount() - 2) {
             return customDays;
@@ -258,7 +424,7 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
             return;
         }
 
-        String[] transportOptions = {"Car", "Public Transport", "Flight", "Walking", "Bicycle"};
+        String[] transportOptions = ItineraryRequest.TRANSPORT_MODES.toArray(new String[0]);
         transportMode = (String) JOptionPane.showInputDialog(
             this, "Select mode of transportation:", "Transportation",
             JOptionPane.QUESTION_MESSAGE, null, transportOptions, transportOptions[0]
@@ -268,72 +434,180 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
             return;
         }
 
-        String[][] activities = {
-            {"Visit Historical Museum", "Explore Art Gallery", "Tour Science Museum"},
-            {"Morning Walk in City Park", "Picnic at Botanical Garden", "Hike in Nature Reserve"},
-            {"Breakfast at Local Cafe", "Coffee Tasting at Specialty Cafe", "Dessert at Patisserie"},
-            {"Street Food Tour", "Fine Dining Experience", "Local Cooking Class", "Food Market Exploration"},
-            {"Kayaking Adventure", "Rock Climbing", "Ziplining Tour", "Paragliding Experience"},
-            {"Spa Day", "Beach Relaxation", "Yoga Retreat", "Meditation Session"},
-            {"Street Food Stall Crawl", "Night Market Food Tour", "Local Snack Tasting"},
-            {"Dinner at Michelin-Star Restaurant", "Wine Tasting Dinner", "Gourmet Tasting Menu"},
-            {"Visit Ancient Ruins", "Tour Historical Landmarks", "Attend Cultural Festival"},
-            {"Shop at Local Markets", "Visit Luxury Malls", "Explore Artisan Boutiques"},
-            {"Live Music Event", "Rooftop Bar Visit", "Cultural Dance Show", "Night Market Stroll"}
-        };
+        // Timed from here so the metrics exclude the time spent in the dialogs above
+        ActionMetrics.Scope timing = ActionMetrics.get().time("generateItinerary");
+        try {
+            ItineraryRequest request = new ItineraryRequest(destination, days,
+                selectionMask(attractionCBs), selectionMask(interestCBs), transportMode);
+            plannedRequest = request;
+            if (days > VIRTUALIZE_AFTER_DAYS) {
+                itineraryView.setItinerary(itineraryEngine.stream(request));
+                showItineraryComponent(itineraryView);
+            } else {
+                itineraryView.setItinerary(null);
+                // Same destination and length: only the changed lines are edited, so the view stays put
+                boolean incremental = updateItineraryText(itineraryEngine.generate(request));
+                showItineraryComponent(itineraryArea, !incremental);
+            }
+        } finally {
+            timing.close();
+        }
+    }
+
+    /** Re-plans a generated itinerary in the text area after a preference checkbox changes. */
+    private void preferencesChanged() {
+        if (plannedRequest == null || itineraryScroll.getViewport().getView() != itineraryArea || itineraryDocument == null
+                || itineraryDocument.document() != itineraryArea.getDocument() || itineraryDocument.itinerary() == null) {
+            return;
+        }
+        ActionMetrics.Scope timing = ActionMetrics.get().time("preferencesChanged");
+        try {
+            ItineraryRequest request = new ItineraryRequest(plannedRequest.destination(), plannedRequest.days(),
+                selectionMask(attractionCBs), selectionMask(interestCBs), plannedRequest.transportMode());
+            plannedRequest = request;
+            updateItineraryText(itineraryEngine.generate(request));
+        } finally {
+            timing.close();
+        }
+    }
+
+    // Edits the days on screen now; ItineraryDocument catches up on the others in later EDT events
+    private boolean updateItineraryText(Itinerary itinerary) {
+        ItineraryDocument doc = itineraryDocument();
+        Rectangle visible = itineraryArea.getVisibleRect();
+        if (visible.isEmpty()) return doc.update(itinerary);
+        int first = doc.dayAt(itineraryArea.viewToModel2D(visible.getLocation()));
+        int last = doc.dayAt(itineraryArea.viewToModel2D(new Point(visible.x + visible.width, visible.y + visible.height)));
+        return doc.update(itinerary, first, last);
+    }
+
+    // Tracks the text area's current document; loading a text file swaps the document and resets it
+    private ItineraryDocument itineraryDocument() {
+        if (itineraryDocument == null || itineraryDocument.document() != itineraryArea.getDocument()) {
+            itineraryDocument = new ItineraryDocument(itineraryArea.getDocument());
+        }
+        return itineraryDocument;
+    }
 
-        StringBuilder plan = new StringBuilder("\nItinerary for " + destination + " (" + days + " day(s))\n");
-        plan.append("Mode of Transportation: ").append(transportMode).append("\n------------------------------\n");
-        for (int i = 1; i <= days; i++) {
-            plan.append("Day ").append(i).append(":\n");
-            if (attractionCBs[0].isSelected()) plan.append("  - ").append(activities[0][(i - 1) % activities[0].length]).append("\n");
-            if (attractionCBs[1].isSelected()) plan.append("  - ").append(activities[1][(i - 1) % activities[1].length]).append("\n");
-            if (attractionCBs[2].isSelected()) plan.append("  - ").append(activities[2][(i - 1) % activities[2].length]).append("\n");
-            if (interestCBs[0].isSelected()) plan.append("  - ").append(activities[3][(i - 1) % activities[3].length]).append("\n");
-            if (interestCBs[1].isSelected()) plan.append("  - ").append(activities[4][(i - 1) % activities[4].length]).append("\n");
-            if (interestCBs[2].isSelected()) plan.append("  - ").append(activities[5][(i - 1) % activities[5].length]).append("\n");
-            if (attractionCBs[3].isSelected()) plan.append("  - ").append(activities[6][(i - 1) % activities[6].length]).append("\n");
-            if (attractionCBs[4].isSelected()) plan.append("  - ").append(activities[7][(i - 1) % activities[7].length]).append("\n");
-            if (interestCBs[3].isSelected()) plan.append("  - ").append(activities[8][(i - 1) % activities[8].length]).append("\n");
-            if (interestCBs[4].isSelected()) plan.append("  - ").append(activities[9][(i - 1) % activities[9].length]).append("\n");
-            plan.append("  - Evening: ").append(activities[10][(i - 1) % activities[10].length]).append("\n\n");
-        }
-        itineraryArea.setText(plan.toString());
+    private void showItineraryComponent(JComponent view) {
+        showItineraryComponent(view, true);
+    }
+
+    private void showItineraryComponent(JComponent view, boolean scrollToTop) {
+        if (itineraryScroll.getViewport().getView() != view) {
+            itineraryScroll.setViewportView(view);
+        }
+        if (scrollToTop) itineraryScroll.getViewport().setViewPosition(new Point(0, 0));
     }
 
     private void saveToFile() {
-        int option = fileChooser.showSaveDialog(this);
+        if (fileTask != null) return;
+        if (itineraryDocument != null) itineraryDocument.finishPendingEdits();
+        int option = fileChooser().showSaveDialog(this);
         if (option == JFileChooser.APPROVE_OPTION) {
-            try (PrintWriter writer = new PrintWriter(fileChooser.getSelectedFile())) {
-                writer.write(itineraryArea.getText());
-                JOptionPane.showMessageDialog(this, "Itinerary saved.");
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error saving: " + e.getMessage());
-            }
+            Path path = fileChooser.getSelectedFile().toPath();
+            Itinerary virtualItinerary = itineraryView.getItinerary();
+            Document doc = itineraryArea.getDocument();
+            String archiveText = ItineraryArchive.isArchive(path) && virtualItinerary == null ? itineraryArea.getText() : null;
+            runFileTask("saveToFile", "Saving...", (progress, cancelled) -> {
+                if (ItineraryArchive.isArchive(path)) {
+                    try {
+                        ItineraryArchive.write(virtualItinerary != null ? virtualItinerary : Itinerary.parse(archiveText), path);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("the itinerary text no longer follows the generated layout ("
+                            + e.getMessage() + "); save it as a text file instead", e);
+                    }
+                } else if (virtualItinerary != null) {
+                    ItineraryIO.writeItinerary(virtualItinerary, path, progress, cancelled); // streamed, never one string
+                } else {
+                    ItineraryIO.writeDocument(doc, path, progress, cancelled);
+                }
+                return null;
+            }, saved -> JOptionPane.showMessageDialog(this, "Itinerary saved."), "Error saving: ");
         }
     }
 
     private void loadFromFile() {
-        int option = fileChooser.showOpenDialog(this);
-        if (option == JFileChooser.APPROVE_OPTION) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(fileChooser.getSelectedFile()))) {
-                itineraryArea.setText("");
-                String line;
-                while ((line = reader.readLine()) != null) itineraryArea.append(line + "\n");
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error loading: " + e.getMessage());
-            }
+        if (fileTask != null) return;
+        int option = fileChooser().showOpenDialog(this);
+        if (option == JFileChooser.APPROVE_OPTION) loadPath(fileChooser.getSelectedFile().toPath());
+    }
+
+    private void loadPath(Path path) {
+        if (fileTask != null) return;
+        if (ItineraryArchive.isArchive(path)) {
+            runFileTask("loadFromFile", "Loading...", (progress, cancelled) -> ItineraryArchive.open(path), itinerary -> {
+                plannedRequest = null;
+                if (itinerary.dayCount() > VIRTUALIZE_AFTER_DAYS) {
+                    itineraryView.setItinerary(itinerary);
+                    showItineraryComponent(itineraryView);
+                } else {
+                    itineraryView.setItinerary(null);
+                    itineraryDocument().replace(itinerary);
+                    showItineraryComponent(itineraryArea);
+                }
+            }, "Error loading: ");
+            return;
         }
+        runFileTask("loadFromFile", "Loading...", (progress, cancelled) -> ItineraryIO.readDocument(path, progress, cancelled), doc -> {
+            plannedRequest = null;
+            itineraryView.setItinerary(null);
+            showItineraryComponent(itineraryArea);
+            itineraryArea.setDocument(doc);
+            itineraryArea.setCaretPosition(0);
+        }, "Error loading: ");
+    }
+
+    private interface FileJob<T> {
+        T run(IntConsumer progress, BooleanSupplier cancelled) throws IOException;
     }
 
-    private double estimateDistance(String source, String destination) {
-        String key = source.toLowerCase() + "-" + destination.toLowerCase();
-        return switch (key) {
-            case "delhi-mumbai", "mumbai-delhi" -> 1400;
-            case "delhi-goa", "goa-delhi" -> 1800;
-            case "mumbai-goa", "goa-mumbai" -> 600;
-            default -> new Random().nextInt(1000) + 100;
+    /**
+     * Runs file I/O {@code job} on a SwingWorker, delivering progress and the result back on
+     * the EDT; its time and allocation are recorded under {@code action}.
+     */
+    private <T> void runFileTask(String action, String label, FileJob<T> job, Consumer<T> onSuccess, String errorPrefix) {
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws IOException {
+                ActionMetrics.Scope timing = ActionMetrics.get().time(action);
+                try {
+                    return job.run(this::setProgress, this::isCancelled);
+                } finally {
+                    timing.close();
+                }
+            }
+
+            @Override
+            protected void done() {
+                fileTask = null;
+                fileProgress.setVisible(false);
+                cancelFileBtn.setVisible(false);
+                saveBtn.setEnabled(true);
+                loadBtn.setEnabled(true);
+                if (isCancelled()) return;
+                try {
+                    onSuccess.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof CancellationException)) {
+                        JOptionPane.showMessageDialog(TravelItineraryPlannerEnhanced.this, errorPrefix + e.getCause().getMessage());
+                    }
+                }
+            }
         };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) fileProgress.setValue((Integer) e.getNewValue());
+        });
+        fileProgress.setValue(0);
+        fileProgress.setString(label);
+        fileProgress.setVisible(true);
+        cancelFileBtn.setVisible(true);
+        saveBtn.setEnabled(false);
+        loadBtn.setEnabled(false);
+        fileTask = worker;
+        worker.execute();
     }
 
     private void estimateBudget() {
@@ -347,125 +621,636 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
                 return;
             }
 
-            double distance = estimateDistance(source, destination);
-
-            double transportCostPerTrip = switch (transportMode) {
-                case "Flight" -> distance * 5;
-                case "Car" -> distance * 2;
-                case "Public Transport" -> distance * 0.5;
-                case "Walking" -> 0;
-                case "Bicycle" -> distance * 0.1;
-                default -> distance * 1;
-            };
-
-            double totalTransportCost = transportCostPerTrip * 2;
-            double foodCostPerDay = (interestCBs[0].isSelected() || attractionCBs[3].isSelected() || attractionCBs[4].isSelected()) ? 1500 : 800;
-            double ticketCostPerDay = (attractionCBs[0].isSelected() || interestCBs[1].isSelected() || interestCBs[3].isSelected()) ? 1000 : 500;
-
-            double totalFoodCost = foodCostPerDay * days;
-            double totalTicketCost = ticketCostPerDay * days;
-            double total = totalTransportCost + totalFoodCost + totalTicketCost;
-
-            budgetTransport.setText(String.format("%.2f", totalTransportCost));
-            budgetFood.setText(String.format("%.2f", totalFoodCost));
-            budgetTickets.setText(String.format("%.2f", totalTicketCost));
-
-            String message = String.format(
-                "Estimated Budget for %d days from %s to %s (Distance: %.0f km):\n" +
-                "Transport (%s, round trip): INR %.2f\n" +
-                "Food: INR %.2f\n" +
-                "Tickets: INR %.2f\n" +
-                "Total: INR %.2f",
-                days, source, destination, distance, transportMode, totalTransportCost,
-                totalFoodCost, totalTicketCost, total
-            );
+            String message;
+            ActionMetrics.Scope timing = ActionMetrics.get().time("estimateBudget");
+            try {
+                double distance = DistanceService.bundled().distanceKm(source, destination);
+
+                BudgetRules.Estimate estimate = BudgetRules.estimate(distance, transportMode, days,
+                    selectionMask(attractionCBs), selectionMask(interestCBs));
+                double totalTransportCost = estimate.transport();
+                double totalFoodCost = estimate.food();
+                double totalTicketCost = estimate.tickets();
+                double total = estimate.total();
+
+                budgetTransport.setText(String.format("%.2f", totalTransportCost));
+                budgetFood.setText(String.format("%.2f", totalFoodCost));
+                budgetTickets.setText(String.format("%.2f", totalTicketCost));
+
+                message = String.format(
+                    "Estimated Budget for %d days from %s to %s (Distance: %.0f km):\n" +
+                    "Transport (%s, round trip): INR %.2f\n" +
+                    "Food: INR %.2f\n" +
+                    "Tickets: INR %.2f\n" +
+                    "Total: INR %.2f",
+                    days, source, destination, distance, transportMode, totalTransportCost,
+                    totalFoodCost, totalTicketCost, total
+                );
+            } finally {
+                timing.close();
+            }
             JOptionPane.showMessageDialog(this, message);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error estimating budget: " + e.getMessage());
         }
     }
 
+    private void showBudgetSweep() {
+        String source = sourceField.getText().trim();
+        String destination = destinationField.getText().trim();
+        if (source.isEmpty() || destination.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter source and destination.");
+            return;
+        }
+        BudgetSweep.Result result = new BudgetSweep().run(
+            new String[]{source}, new String[]{destination}, BudgetSweep.MAX_DAYS);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Cheapest per Duration", budgetTable(result.cheapestPerDuration(0)));
+        tabs.addTab("All Scenarios", budgetTable(result.rows()));
+        tabs.setPreferredSize(new Dimension(800, 450));
+        JOptionPane.showMessageDialog(this, tabs, "Budget Comparison: " + source + " to " + destination,
+            JOptionPane.PLAIN_MESSAGE);
+    }
+
+    private JScrollPane budgetTable(List<BudgetSweep.Row> rows) {
+        String[] columns = {"Transport", "Days", "Food", "Tickets", "Distance (km)", "Total (INR)"};
+        AbstractTableModel model = new AbstractTableModel() {
+            @Override
+            public int getRowCount() {
+                return rows.size();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return columns.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return columns[column];
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return switch (column) {
+                    case 1 -> Integer.class;
+                    case 4, 5 -> Double.class;
+                    default -> String.class;
+                };
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                BudgetSweep.Row r = rows.get(row);
+                return switch (column) {
+                    case 0 -> r.transportMode();
+                    case 1 -> r.days();
+                    case 2 -> r.foodTier();
+                    case 3 -> r.ticketTier();
+                    case 4 -> Math.rint(r.distanceKm());
+                    default -> Math.rint(r.total() * 100) / 100;
+                };
+            }
+        };
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        return new JScrollPane(table);
+    }
+
     private void showMap() {
         String destination = destinationField.getText().trim();
         if (destination.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please enter a destination.");
             return;
         }
+        TileStore tiles = tileStore();
+        MapPanel map = new MapPanel(tiles);
+        map.setMarkers(mapStops(destination));
+
+        JLabel source = new JLabel(tiles != null ? "Offline tiles: " + System.getProperty("planner.tiles")
+            : "No offline tiles (start with -Dplanner.tiles=<directory or " + TileStore.PACKED_EXTENSION + " file>)");
+        JButton browser = new JButton("Open in browser");
+        browser.setEnabled(Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.BROWSE));
+        browser.addActionListener(e -> {
+            try {
+                String mapUrl = "https://www.google.com/maps/search/" + destination.replace(" ", "+");
+                Desktop.getDesktop().browse(new URI(mapUrl));
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(this, "Error opening map: " + ex.getMessage());
+            }
+        });
+        JPanel bar = new JPanel(new BorderLayout(8, 0));
+        bar.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        bar.add(source, BorderLayout.CENTER);
+        bar.add(browser, BorderLayout.EAST);
+
+        JDialog dialog = new JDialog(this, "Map: " + destination, false);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.add(map, BorderLayout.CENTER);
+        dialog.add(bar, BorderLayout.SOUTH);
+        dialog.pack();
+        int city = DistanceService.bundled().idOf(destination);
+        if (city >= 0) {
+            map.centerOn(DistanceService.bundled().latitude(city), DistanceService.bundled().longitude(city), 12);
+        }
+        map.fitMarkers();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Search box over the saved itineraries in -Dplanner.searchDir (else the file chooser's
+     * folder). Results follow each keystroke; double-click or Enter opens one like Load does.
+     */
+    private void showSearch() {
+        JTextField query = new JTextField(32);
+        DefaultListModel<ItinerarySearch.Hit> results = new DefaultListModel<>();
+        JList<ItinerarySearch.Hit> list = new JList<>(results);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index, boolean selected, boolean focus) {
+                super.getListCellRendererComponent(l, value, index, selected, focus);
+                setText(describeHit((ItinerarySearch.Hit) value));
+                return this;
+            }
+        });
+        JLabel status = new JLabel(" ");
+        JButton folder = new JButton("Folder...");
+        JDialog dialog = new JDialog(this, "Search Saved Itineraries", false);
+
+        Runnable search = () -> runSearch(query.getText(), results, list, status);
+        Runnable open = () -> {
+            ItinerarySearch.Hit hit = list.getSelectedValue() != null ? list.getSelectedValue()
+                : results.isEmpty() ? null : results.get(0);
+            if (hit != null) loadPath(hit.path());
+        };
+        query.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { search.run(); }
+            public void removeUpdate(DocumentEvent e) { search.run(); }
+            public void changedUpdate(DocumentEvent e) { search.run(); }
+        });
+        query.addActionListener(e -> open.run());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) open.run();
+            }
+        });
+        list.registerKeyboardAction(e -> open.run(), KeyStroke.getKeyStroke("ENTER"), JComponent.WHEN_FOCUSED);
+        folder.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser(searchIndex != null ? searchIndex.root().toFile() : defaultSearchDir().toFile());
+            chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            if (chooser.showOpenDialog(dialog) == JFileChooser.APPROVE_OPTION) {
+                openSearchIndex(chooser.getSelectedFile().toPath(), status);
+            }
+        });
+
+        JPanel top = new JPanel(new BorderLayout(8, 0));
+        top.setBorder(BorderFactory.createEmptyBorder(8, 8, 4, 8));
+        top.add(query, BorderLayout.CENTER);
+        top.add(folder, BorderLayout.EAST);
+        status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setPreferredSize(new Dimension(640, 360));
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.add(top, BorderLayout.NORTH);
+        dialog.add(scroll, BorderLayout.CENTER);
+        dialog.add(status, BorderLayout.SOUTH);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (searchRefresh == search) searchRefresh = null;
+            }
+        });
+        searchRefresh = search;
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+        if (searchIndex == null) {
+            openSearchIndex(defaultSearchDir(), status);
+        } else {
+            search.run();
+        }
+    }
+
+    // -Dplanner.searchDir, else the open dialog's folder, else the platform default; no chooser is built for it
+    private Path defaultSearchDir() {
+        String dir = System.getProperty("planner.searchDir");
+        if (dir != null && !dir.isBlank()) return Path.of(dir);
+        if (fileChooser != null) return fileChooser.getCurrentDirectory().toPath();
+        return FileSystemView.getFileSystemView().getDefaultDirectory().toPath();
+    }
+
+    /** Builds the index for {@code dir} off the EDT and swaps it in for the previous one. */
+    private void openSearchIndex(Path dir, JLabel status) {
+        if (searchIndexTask != null) return;
+        status.setText("Indexing " + dir + "...");
+        SwingWorker<ItinerarySearch, Void> worker = new SwingWorker<>() {
+            private long millis;
+
+            @Override
+            protected ItinerarySearch doInBackground() throws IOException {
+                long start = System.nanoTime();
+                ActionMetrics.Scope timing = ActionMetrics.get().time("buildSearchIndex");
+                try {
+                    ItinerarySearch index = ItinerarySearch.build(dir);
+                    index.watch(() -> SwingUtilities.invokeLater(() -> {
+                        if (searchRefresh != null && searchIndex == index) searchRefresh.run();
+                    }));
+                    millis = (System.nanoTime() - start) / 1_000_000;
+                    return index;
+                } finally {
+                    timing.close();
+                }
+            }
+
+            @Override
+            protected void done() {
+                searchIndexTask = null;
+                try {
+                    ItinerarySearch index = get();
+                    if (searchIndex != null) searchIndex.close();
+                    searchIndex = index;
+                    status.setText(String.format("Indexed %,d itineraries in %s (%,d ms)", index.size(), dir, millis));
+                    if (searchRefresh != null) searchRefresh.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | IOException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    status.setText("Cannot index " + dir + ": " + cause.getMessage());
+                }
+            }
+        };
+        searchIndexTask = worker;
+        worker.execute();
+    }
+
+    private void runSearch(String text, DefaultListModel<ItinerarySearch.Hit> results, JList<?> list, JLabel status) {
+        if (searchIndex == null) return;
+        long start = System.nanoTime();
+        List<ItinerarySearch.Hit> hits;
+        ActionMetrics.Scope timing = ActionMetrics.get().time("search");
         try {
-            String mapUrl = "https://www.google.com/maps/search/" + destination.replace(" ", "+");
-            Desktop.getDesktop().browse(new URI(mapUrl));
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error opening map: " + e.getMessage());
+            hits = searchIndex.search(text, SEARCH_HITS);
+        } finally {
+            timing.close();
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+        results.clear();
+        results.addAll(hits);
+        if (!hits.isEmpty()) list.setSelectedIndex(0);
+        status.setText(text.isBlank() ? String.format("%,d itineraries in %s", searchIndex.size(), searchIndex.root())
+            : String.format("%d match(es) among %,d itineraries in %.1f ms", hits.size(), searchIndex.size(), millis));
+    }
+
+    private String describeHit(ItinerarySearch.Hit hit) {
+        Path root = searchIndex != null ? searchIndex.root() : null;
+        String file = root != null && hit.path().startsWith(root) ? root.relativize(hit.path()).toString() : hit.path().toString();
+        if (hit.days() == 0) return hit.destination() + "  (" + file + ")";
+        return hit.destination() + ", " + hit.days() + " day(s), " + hit.transportMode() + "  (" + file + ")";
+    }
+
+    // Opened on first use from -Dplanner.tiles and kept for the session; null when unset or unreadable
+    private TileStore tileStore() {
+        if (tileStore == null && !tileStoreTried) {
+            tileStoreTried = true;
+            String path = System.getProperty("planner.tiles");
+            if (path != null && !path.isBlank()) {
+                try {
+                    tileStore = TileStore.open(Path.of(path));
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(this, "Cannot open map tiles " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return tileStore;
+    }
+
+    /** One marker per distinct catalog place in the current itinerary, coloured by the day it is first visited. */
+    private List<MapPanel.Marker> mapStops(String destination) {
+        Itinerary itinerary = itineraryView.getItinerary();
+        if (itinerary == null) {
+            if (itineraryDocument != null) itineraryDocument.finishPendingEdits();
+            try {
+                itinerary = Itinerary.parse(itineraryArea.getText());
+            } catch (IllegalArgumentException notAnItinerary) {
+                return List.of();
+            }
+        }
+        ActivityCatalog catalog = ActivityCatalog.bundled();
+        String city = itinerary.destination();
+        Map<Integer, MapPanel.Marker> stops = new LinkedHashMap<>();
+        // Long trips revisit the same places, so the first days already cover every distinct stop
+        for (int day = 1; day <= Math.min(itinerary.dayCount(), MAP_DAYS); day++) {
+            DayPlan plan = itinerary.day(day);
+            List<String> places = new ArrayList<>(plan.activities());
+            places.add(plan.evening());
+            for (String place : places) {
+                int id = catalog.find(city, place);
+                if (id >= 0 && catalog.hasLocation(id) && !stops.containsKey(id)) {
+                    stops.put(id, new MapPanel.Marker(catalog.latitude(id), catalog.longitude(id), "Day " + day + ": " + place, day - 1));
+                }
+            }
         }
+        return new ArrayList<>(stops.values());
     }
 
     private void showGPTSuggestions() {
-        String[] tips = {
-            "Carry a reusable water bottle to stay hydrated and save money.",
-            "Download offline maps for your destination to navigate without internet.",
-            "Check local customs and dress codes to respect cultural norms.",
-            "Always have a power bank for your devices during long days out.",
-            "Book popular attractions in advance to avoid long queues.",
-            "Try local street food, but ensure it's from reputable vendors.",
-            "Keep digital and physical copies of important travel documents."
-        };
-        Random rand = new Random();
+        SuggestionProvider.Query query = new SuggestionProvider.Query(destinationField.getText(), getSelectedDays(),
+            selectionMask(attractionCBs), selectionMask(interestCBs), transportMode, SUGGESTIONS_SHOWN);
+        int request = ++suggestionRequest;
+        long start = System.nanoTime();
+        CompletableFuture<List<String>> pending = suggestionService.suggest(query);
+        if (!pending.isDone()) {
+            tipsArea.setText("Fetching suggestions from " + suggestionService.provider().name() + "...");
+        }
+        pending.whenComplete((tips, failure) -> SwingUtilities.invokeLater(() -> {
+            if (request != suggestionRequest) return;
+            // Allocation happens on the provider's threads, so it is unknown here
+            ActionMetrics.get().record("suggestions", System.nanoTime() - start, -1);
+            if (failure == null) {
+                showTips(tips, null);
+                return;
+            }
+            // The local engine always answers, so a dead backend still leaves useful tips
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            String reason = cause instanceof TimeoutException ? "timed out" : String.valueOf(cause.getMessage());
+            long preferences = TipEngine.preferenceBits(query.attractionMask(), query.interestMask(), query.transportMode());
+            showTips(tipEngine.recommend(query.destination(), preferences, SUGGESTIONS_SHOWN),
+                "(" + suggestionService.provider().name() + " unavailable: " + reason + "; showing offline tips)");
+        }));
+    }
+
+    private void showTips(List<String> tips, String note) {
         StringBuilder selectedTips = new StringBuilder();
-        for (int i = 0; i < 3; i++) {
-            selectedTips.append("- ").append(tips[rand.nextInt(tips.length)]).append("\n");
+        for (String tip : tips) {
+            selectedTips.append("- ").append(tip).append("\n");
         }
+        if (note != null) selectedTips.append(note).append("\n");
         tipsArea.setText(selectedTips.toString());
     }
 
     private void showReminderDialog() {
-        String reminder = JOptionPane.showInputDialog(this, "Enter a reminder:");
-        if (reminder != null && !reminder.isEmpty()) {
-            LocalDateTime now = LocalDateTime.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            String timestamp = now.format(formatter);
-            String formattedReminder = "[" + timestamp + "] " + reminder;
-
-            if (remindersArea.getText().isEmpty()) {
-                remindersArea.setText(formattedReminder);
-            } else {
-                remindersArea.append("\n" + formattedReminder);
+        JTextField textField = new JTextField(24);
+        JTextField dueField = new JTextField(24);
+        JPanel form = new JPanel(new GridLayout(0, 1, 0, 4));
+        form.add(new JLabel("Enter a reminder:"));
+        form.add(textField);
+        form.add(new JLabel("Due (optional), e.g. 2026-11-02 09:00, in 3 days, 3 days before 2026-12-20:"));
+        form.add(dueField);
+        int choice = JOptionPane.showConfirmDialog(this, form, "Add Reminder", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        String reminder = textField.getText().trim();
+        if (choice != JOptionPane.OK_OPTION || reminder.isEmpty()) return;
+        LocalDateTime due = null;
+        if (!dueField.getText().isBlank()) {
+            try {
+                due = ReminderScheduler.parseDue(dueField.getText(), LocalDateTime.now());
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(this, e.getMessage());
+                return;
+            }
+        }
+        if (reminderStore == null) {
+            JOptionPane.showMessageDialog(this, remindersLoading
+                ? "Reminders are still loading, please try again in a moment."
+                : "Error saving reminder: reminder store is not available.");
+            return;
+        }
+        try {
+            ActionMetrics.Scope timing = ActionMetrics.get().time("showReminderDialog");
+            try {
+                ReminderStore.Reminder saved = reminderStore.append(reminder, due);
+                if (reminderScheduler != null) reminderScheduler.schedule(saved);
+                appendReminderLine(saved.formatted());
+            } finally {
+                timing.close();
+            }
+            JOptionPane.showMessageDialog(this, "Reminder saved: " + reminder
+                + (due != null ? "\nDue " + due.format(ReminderStore.DUE) : ""));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving reminder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the reminders created in a chosen period (a binary search over the store's index)
+     * and deletes the selected ones through the scheduler, which drops them from the schedule
+     * and compacts the store once enough deletions have piled up. Modal, so the ids it lists
+     * cannot be renumbered by another deletion while it is open.
+     */
+    private void showReminderManager() {
+        if (reminderStore == null) {
+            JOptionPane.showMessageDialog(this, remindersLoading
+                ? "Reminders are still loading, please try again in a moment."
+                : "Reminder store is not available.");
+            return;
+        }
+        String[] periods = new String[REMINDER_PERIODS.length + 1];
+        for (int i = 0; i < REMINDER_PERIODS.length; i++) periods[i] = "Created in the last " + REMINDER_PERIODS[i] + " days";
+        periods[REMINDER_PERIODS.length] = "Newest " + REMINDERS_LISTED;
+        JComboBox<String> period = new JComboBox<>(periods);
+        DefaultListModel<ReminderStore.Reminder> reminders = new DefaultListModel<>();
+        JList<ReminderStore.Reminder> list = new JList<>(reminders);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index, boolean selected, boolean focus) {
+                super.getListCellRendererComponent(l, value, index, selected, focus);
+                ReminderStore.Reminder r = (ReminderStore.Reminder) value;
+                setText(r.fired() ? r.formatted() + "  \u2713" : r.formatted());
+                return this;
+            }
+        });
+        JLabel status = new JLabel(" ");
+        JButton delete = new JButton("Delete");
+        JDialog dialog = new JDialog(this, "Manage Reminders", true);
+
+        Runnable reload = () -> listReminders(period.getSelectedIndex(), reminders, status, delete);
+        period.addActionListener(e -> reload.run());
+        delete.addActionListener(e -> {
+            List<ReminderStore.Reminder> chosen = list.getSelectedValuesList();
+            if (chosen.isEmpty()) return;
+            int choice = JOptionPane.showConfirmDialog(dialog, "Delete " + chosen.size() + " reminder(s)?",
+                "Manage Reminders", JOptionPane.OK_CANCEL_OPTION);
+            if (choice == JOptionPane.OK_OPTION) deleteReminders(chosen, status, delete, reload);
+        });
+
+        JPanel top = new JPanel(new BorderLayout(8, 0));
+        top.setBorder(BorderFactory.createEmptyBorder(8, 8, 4, 8));
+        top.add(period, BorderLayout.CENTER);
+        top.add(delete, BorderLayout.EAST);
+        status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setPreferredSize(new Dimension(640, 360));
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.add(top, BorderLayout.NORTH);
+        dialog.add(scroll, BorderLayout.CENTER);
+        dialog.add(status, BorderLayout.SOUTH);
+        reload.run();
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private void listReminders(int choice, DefaultListModel<ReminderStore.Reminder> reminders, JLabel status, JButton delete) {
+        ReminderStore store = reminderStore;
+        delete.setEnabled(false);
+        status.setText("Loading...");
+        new SwingWorker<List<ReminderStore.Reminder>, Void>() {
+            @Override
+            protected List<ReminderStore.Reminder> doInBackground() throws IOException {
+                if (choice >= REMINDER_PERIODS.length) return store.newest(REMINDERS_LISTED);
+                LocalDateTime now = LocalDateTime.now();
+                return store.between(now.minusDays(REMINDER_PERIODS[choice]), now.plusMinutes(1));
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    reminders.clear();
+                    reminders.addAll(get());
+                    status.setText(String.format("%,d shown of %,d reminders", reminders.size(), store.size()));
+                    delete.setEnabled(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    status.setText("Error loading reminders: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void deleteReminders(List<ReminderStore.Reminder> chosen, JLabel status, JButton delete, Runnable reload) {
+        ReminderStore store = reminderStore;
+        ReminderScheduler scheduler = reminderScheduler;
+        int[] ids = new int[chosen.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = chosen.get(i).id();
+        delete.setEnabled(false);
+        status.setText("Deleting...");
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws IOException {
+                scheduler.delete(ids);
+                return remindersText(store);
             }
 
-            try (PrintWriter writer = new PrintWriter(new FileWriter(remindersFile, true))) {
-                writer.println(formattedReminder);
-                JOptionPane.showMessageDialog(this, "Reminder saved: " + reminder);
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error saving reminder: " + e.getMessage());
+            @Override
+            protected void done() {
+                try {
+                    remindersArea.setText(get());
+                    reload.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    status.setText("Error deleting reminders: " + cause.getMessage());
+                    delete.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    private static String remindersText(ReminderStore store) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (ReminderStore.Reminder r : store.newest(REMINDERS_SHOWN)) {
+            if (text.length() > 0) text.append("\n");
+            text.append(r.formatted());
+        }
+        return text.toString();
+    }
+
+    // The area keeps the newest REMINDERS_SHOWN lines; older ones stay in the reminders file
+    private void appendReminderLine(String line) {
+        Document doc = remindersArea.getDocument();
+        remindersArea.append(doc.getLength() == 0 ? line : "\n" + line);
+        Element root = doc.getDefaultRootElement();
+        int excess = root.getElementCount() - REMINDERS_SHOWN;
+        if (excess > 0) {
+            try {
+                doc.remove(0, root.getElement(excess - 1).getEndOffset());
+            } catch (BadLocationException ignored) {
+                // Offsets come from the document itself
             }
         }
     }
 
+    /** Called on the scheduler thread with everything that fell due in one pass. */
+    private void remindersDue(List<ReminderStore.Reminder> due) {
+        SwingUtilities.invokeLater(() -> {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < due.size(); i++) {
+                ReminderStore.Reminder r = due.get(i);
+                appendReminderLine("Due " + r.due().format(ReminderStore.DUE) + ": " + r.text());
+                if (i < DUE_SHOWN) message.append("\u2022 ").append(r.text()).append('\n');
+            }
+            if (due.size() > DUE_SHOWN) message.append("... and ").append(due.size() - DUE_SHOWN).append(" more\n");
+            Toolkit.getDefaultToolkit().beep();
+            // Non-modal, so a burst of due reminders never blocks the rest of the UI
+            JDialog dialog = new JOptionPane(message.toString(), JOptionPane.INFORMATION_MESSAGE)
+                .createDialog(this, due.size() == 1 ? "Reminder due" : due.size() + " reminders due");
+            dialog.setModal(false);
+            dialog.setVisible(true);
+        });
+    }
+
+    /** Opens the store (which may rebuild its index) off the EDT, then shows the newest reminders. */
     private void loadReminders() {
-        if (remindersFile.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(remindersFile))) {
-                StringBuilder remindersText = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (remindersText.length() > 0) remindersText.append("\n");
-                    remindersText.append(line);
+        Path path = remindersFile.toPath();
+        new SwingWorker<ReminderStore, Void>() {
+            private String text;
+            private ReminderScheduler scheduler;
+
+            @Override
+            protected ReminderStore doInBackground() throws IOException {
+                ReminderStore store = ReminderStore.open(path);
+                scheduler = ReminderScheduler.load(store, TravelItineraryPlannerEnhanced.this::remindersDue);
+                text = remindersText(store);
+                return store;
+            }
+
+            @Override
+            protected void done() {
+                remindersLoading = false;
+                try {
+                    reminderStore = get();
+                    reminderScheduler = scheduler;
+                    remindersArea.setText(text);
+                    // Started only now so overdue reminders land after the list above
+                    scheduler.start();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (!exitAfterStartup) {
+                        JOptionPane.showMessageDialog(TravelItineraryPlannerEnhanced.this,
+                            "Error loading reminders: " + cause.getMessage());
+                    }
                 }
-                remindersArea.setText(remindersText.toString());
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error loading reminders: " + e.getMessage());
+                startupComplete();
             }
+        }.execute();
+    }
+
+    private void togglePaintStats() {
+        if (paintStatsTimer == null) {
+            paintMeter.install();
+            paintStatsTimer = new Timer(500, e -> paintStatsLabel.setText(paintMeter.summary()));
         }
+        boolean show = !paintStatsLabel.isVisible();
+        paintMeter.reset();
+        paintStatsLabel.setText(paintMeter.summary());
+        paintStatsLabel.setVisible(show);
+        if (show) paintStatsTimer.start(); else paintStatsTimer.stop();
     }
 
     private JButton createStyledButton(String text, Color bgColor) {
+        RenderCache.RoundedBackground background = new RenderCache.RoundedBackground(ARC_RADIUS);
         JButton button = new JButton(text) {
             @Override
             protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fillRoundRect(0, 0, getWidth(), getHeight(), ARC_RADIUS, ARC_RADIUS);
-                super.paintComponent(g2);
-                g2.dispose();
+                background.paint(g, this);
+                super.paintComponent(g);
             }
         };
         button.setFont(BUTTON_FONT);
@@ -484,7 +1269,23 @@ public class TravelItineraryPlannerEnhanced extends JFrame {
         return label;
     }
 
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new TravelItineraryPlannerEnhanced().setVisible(true));
+    /**
+     * {@code --exit-after-startup} quits once startup finishes, for timing runs and AppCDS training
+     * (see appcds.sh); {@code --server} starts the headless JSON API instead of the window (see PlannerServer).
+     */
+    public static void main(String[] args) throws IOException {
+        if (List.of(args).contains("--server")) {
+            PlannerServer.main(args);
+            return;
+        }
+        StartupTimer.mark("main");
+        boolean exitAfterStartup = List.of(args).contains("--exit-after-startup");
+        // Parse the activity catalog while the EDT is busy with the look-and-feel and layout
+        ForkJoinPool.commonPool().execute(ActivityCatalog::bundled);
+        SwingUtilities.invokeLater(() -> {
+            TravelItineraryPlannerEnhanced planner = new TravelItineraryPlannerEnhanced(exitAfterStartup);
+            planner.setVisible(true);
+            StartupTimer.mark("frame visible");
+        });
     }
 }
\ No newline at end of file
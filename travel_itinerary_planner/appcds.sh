@@ -0,0 +1,40 @@
+#!/bin/sh
+# Builds an AppCDS (class data sharing) archive for the planner and launches with it.
+# Needs JDK 13+ and a display: the training run opens the window and exits after startup.
+#
+#   ./appcds.sh          compile into app.jar if a source changed, train app.jsa if missing, then launch
+#   ./appcds.sh --train  recreate app.jsa (do this after upgrading the JDK)
+#
+# The classes go into a jar because -XX:ArchiveClassesAtExit rejects a non-empty directory
+# on the class path. The jar is only rebuilt when a source is newer, since the JVM ignores
+# an archive made from a different jar; a rebuilt jar always gets a fresh archive.
+#
+# Startup phase timings are printed to stderr; add -Dplanner.startupLog=startup.csv to
+# JAVA_OPTS to keep one line per launch.
+set -e
+cd "$(dirname "$0")"
+OUT=out
+JAR=app.jar
+ARCHIVE=app.jsa
+
+if [ ! -f "$JAR" ] || [ -n "$(find . -maxdepth 1 \( -name '*.java' -o -name activities.csv \) -newer "$JAR")" ]; then
+    rm -rf "$OUT"
+    mkdir -p "$OUT"
+    javac -d "$OUT" *.java
+    cp activities.csv "$OUT"/
+    jar cf "$JAR" -C "$OUT" .
+    rm -f "$ARCHIVE"
+fi
+
+if [ "$1" = "--train" ] || [ ! -f "$ARCHIVE" ]; then
+    rm -f "$ARCHIVE"
+    if ! java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" TravelItineraryPlannerEnhanced --exit-after-startup; then
+        echo "appcds: training run failed, launching without a class data archive" >&2
+        rm -f "$ARCHIVE"
+    fi
+fi
+
+if [ -f "$ARCHIVE" ]; then
+    exec java -XX:SharedArchiveFile="$ARCHIVE" $JAVA_OPTS -cp "$JAR" TravelItineraryPlannerEnhanced
+fi
+exec java $JAVA_OPTS -cp "$JAR" TravelItineraryPlannerEnhanced